@@ -1,5 +1,27 @@
 package com.tictactoe.agent;
 
+import com.tictactoe.core.Board;
+
 public abstract class AbstractAgent implements IAgent {
 
+	/**
+	 * Decide the next move ignoring the deadline for agents deciding in no time
+	 */
+	@Override
+	public int selectNextMove(Board board, long deadlineNanos) {
+		return selectNextMove(board);
+	}
+	
+	/**
+	 * Decide the move of each board one by one for agents without a faster way
+	 */
+	@Override
+	public void selectNextMoves(Board[] boards, int[] movekeys) {
+		if (movekeys.length < boards.length) {
+			throw new IllegalArgumentException();
+		}
+		for (int i = 0; i < boards.length; i++) {
+			movekeys[i] = selectNextMove(boards[i]);
+		}
+	}
 }
@@ -1,13 +1,88 @@
 package com.tictactoe.agent;
 
 public class AgentFactory {
-	public enum AgentType {RANDOM, RATIONAL};
+	public enum AgentType {RANDOM, RATIONAL, ALPHA_BETA, ITERATIVE_DEEPENING, PERFECT_PLAY, MCTS, TREE_PARALLEL_MCTS, TABLEBASE, GREEDY};
+	
+	public static final int MIN_DIFFICULTY = 0;
+	public static final int MAX_DIFFICULTY = 10;
+	
+	// Playouts per move of each difficulty from MIN_DIFFICULTY, about 2.5 times the playouts of the level below
+	// CPU time of a move is in proportion to the playouts, ex. about 0.1 ms at 0 and 5 ms at 10 on 3x3, 15 ms at 10 on 5x5 (DifficultyBenchmark)
+	private static final int[] DIFFICULTY_PLAYOUTS = {1, 3, 6, 16, 40, 100, 250, 630, 1600, 4000, 10000};
+	
+	/**
+	 * Create an agent searching in threadCount threads
+	 * Note: Agents deciding in no time use one thread whatever the threadCount is
+	 * @param agentType    Type of the agent
+	 * @param threadCount  Number of threads including the thread calling selectNextMove
+	 * @return             Agent created
+	 */
+	public static IAgent createAgent(AgentType agentType, int threadCount) {
+		if (threadCount <= 0) {
+			throw new IllegalArgumentException();
+		}
+		if (agentType.equals(AgentType.ALPHA_BETA)) {
+			return new AlphaBetaAgent(threadCount);
+		} else if (agentType.equals(AgentType.ITERATIVE_DEEPENING)) {
+			AlphaBetaAgent agent = new AlphaBetaAgent(threadCount);
+			agent.setIterativeDeepening(true);
+			return agent;
+		} else if (agentType.equals(AgentType.MCTS)) {
+			return new MctsAgent(threadCount);
+		} else if (agentType.equals(AgentType.TREE_PARALLEL_MCTS)) {
+			return new MctsAgent(threadCount, MctsAgent.Parallelization.TREE);
+		} else {
+			return createAgent(agentType);
+		}
+	}
+	
+	/**
+	 * Create an agent playing at the difficulty on one thread
+	 * Every difficulty is MctsAgent with a fixed number of playouts, so the strength and the CPU time of a move
+	 * both grow with the difficulty and don't vary at random from move to move
+	 * ex. On 3x3, 0 plays about at random and 10 draws every game against the perfect play
+	 * @param difficulty  From MIN_DIFFICULTY to MAX_DIFFICULTY
+	 * @return            Agent created
+	 */
+	public static IAgent createAgent(int difficulty) {
+		MctsAgent agent = new MctsAgent(1);
+		agent.setIterationBudget(getDifficultyPlayouts(difficulty));
+		return agent;
+	}
+	
+	/**
+	 * Get the playouts per move of the agent of the difficulty, the unit of its CPU time
+	 * @param difficulty  From MIN_DIFFICULTY to MAX_DIFFICULTY
+	 * @return            Number of playouts
+	 */
+	public static int getDifficultyPlayouts(int difficulty) {
+		if (difficulty < MIN_DIFFICULTY || difficulty > MAX_DIFFICULTY) {
+			throw new IllegalArgumentException();
+		}
+		return DIFFICULTY_PLAYOUTS[difficulty - MIN_DIFFICULTY];
+	}
 	
 	public static IAgent createAgent(AgentType agentType) {
 		if (agentType.equals(AgentType.RANDOM)) {
 			return new RandomAgent();
 		} else if (agentType.equals(AgentType.RATIONAL)) {
 			return new RationalAgent();
+		} else if (agentType.equals(AgentType.ALPHA_BETA)) {
+			return new AlphaBetaAgent();
+		} else if (agentType.equals(AgentType.ITERATIVE_DEEPENING)) {
+			AlphaBetaAgent agent = new AlphaBetaAgent();
+			agent.setIterativeDeepening(true);
+			return agent;
+		} else if (agentType.equals(AgentType.PERFECT_PLAY)) {
+			return new PerfectPlayAgent();
+		} else if (agentType.equals(AgentType.MCTS)) {
+			return new MctsAgent();
+		} else if (agentType.equals(AgentType.TREE_PARALLEL_MCTS)) {
+			return new MctsAgent(Runtime.getRuntime().availableProcessors(), MctsAgent.Parallelization.TREE);
+		} else if (agentType.equals(AgentType.TABLEBASE)) {
+			return new TablebaseAgent();
+		} else if (agentType.equals(AgentType.GREEDY)) {
+			return new GreedyAgent();
 		} else {
 			return null;
 		}
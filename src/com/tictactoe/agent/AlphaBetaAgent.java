@@ -0,0 +1,676 @@
+package com.tictactoe.agent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+
+/**
+ * Agent searching the game tree with negamax and alpha-beta pruning
+ * Moves are applied to the board in place and taken back, so no board is copied during the search
+ * With more than one thread, helper threads search the same root in slightly different move orders
+ * and share the results through a SharedTranspositionTable (Lazy SMP), while the move of the main thread is played
+ * Note: Not thread safe, every thread calling selectNextMove needs its own agent
+ */
+public class AlphaBetaAgent extends AbstractAgent {
+	public static final int UNLIMITED_DEPTH = 0;
+	
+	// Score of winning with the next move, a win in more plies scores lower to prefer the fastest win and the slowest loss
+	static final int WIN_SCORE = 1000000;
+	static final int DRAW_SCORE = 0;
+	
+	public static final int DEFAULT_TABLE_CAPACITY = 1 << 16;
+	public static final long DEFAULT_MOVE_TIME_MILLIS = 1000;
+	
+	// Number of positions to search between the checks of the deadline
+	private static final int DEADLINE_CHECK_INTERVAL = 1024;
+	
+	private static final int MIN_ORDERING_DEPTH = 3; // Positions closer to the horizon are cheaper to search than to order
+	
+	// Mixed into the hash of the position when X is to move
+	private static final long X_TO_MOVE_KEY = 0x6A09E667F3BCC909L;
+	
+	private final int threadCount;
+	private ITranspositionTable transpositionTable;
+	private int tableRows; // Shape of the board the table has the positions of
+	private int tableCols;
+	private int tableWinLength;
+	private int maxDepth = UNLIMITED_DEPTH; // Number of plies to search, unknown positions at the depth are scored by the evaluator or as a draw
+	private long nodeCount; // Number of positions searched by the last selectNextMove
+	private int[][] moveBuffers = new int[0][]; // Available movekeys per ply, reused across searches
+	private int moveBufferSize;
+	
+	private boolean iterativeDeepening = false;
+	private long moveTimeMillis = DEFAULT_MOVE_TIME_MILLIS;
+	private int completedDepth; // Depth the last selectNextMove searched completely
+	private int rootScore; // Score of the best move of the last depth searched
+	private boolean hasDeadline; // Whether the search in progress can be aborted
+	private long deadlineNanos;
+	private long nextDeadlineCheck; // Node count to check the time at next
+	private boolean aborted; // Whether the deadline has passed during the search in progress
+	
+	private AlphaBetaAgent[] helpers; // Agents searching in the helper threads, created on the first search
+	private ExecutorService executor;
+	private List<Future<Long>> helperFutures = new ArrayList<Future<Long>>();
+	private AtomicBoolean stopSignal; // Set by the main thread to stop the helper threads, null for the main thread
+	private Random orderingRandom; // Shuffles the move order of the helper threads, null for the main thread
+	private MoveOrderer moveOrderer = new MoveOrderer();
+	private PatternEvaluator evaluator; // Scores the unknown positions at the depth, null to score them as a draw
+	
+	AlphaBetaAgent() {
+		this(1);
+	}
+	
+	/**
+	 * Create an agent searching in threadCount threads including the calling thread
+	 */
+	AlphaBetaAgent(int threadCount) {
+		if (threadCount <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.threadCount = threadCount;
+		if (threadCount > 1) {
+			this.transpositionTable = new SharedTranspositionTable(DEFAULT_TABLE_CAPACITY, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+		} else {
+			this.transpositionTable = new TranspositionTable(DEFAULT_TABLE_CAPACITY, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+		}
+	}
+	
+	/**
+	 * Search every move of the agent and return the best one
+	 * Note: Among moves of the same score, the smallest movekey is chosen
+	 * @param board Current state of the board
+	 * @return      Movekey decided
+	 */
+	@Override
+	public int selectNextMove(Board board) {
+		if (this.iterativeDeepening) {
+			return selectNextMove(board, System.nanoTime() + this.moveTimeMillis * 1000000L);
+		}
+		return selectNextMove(board, Game.getAgentUserType());
+	}
+	
+	@Override
+	public int selectNextMove(Board board, long deadlineNanos) {
+		return selectNextMove(board, Game.getAgentUserType(), deadlineNanos);
+	}
+	
+	/**
+	 * Search every move of userType to the max depth and return the best one
+	 * @param board    Current state of the board, which is restored before returning
+	 * @param userType UserType to move
+	 * @return         Movekey decided
+	 */
+	public int selectNextMove(Board board, IUserType userType) {
+		prepareSearch(board);
+		prepareTable(board);
+		int depth = getSearchDepth(board);
+		startHelpers(board, userType, depth);
+		int bestMovekey = searchRoot(board, userType, depth, 0);
+		this.completedDepth = depth;
+		stopHelpers();
+		return bestMovekey;
+	}
+	
+	/**
+	 * Search every move of userType one more ply at a time until the max depth or the deadline
+	 * Note: The first ply is always searched to have a move even if the deadline has already passed
+	 * @param board          Current state of the board, which is restored before returning
+	 * @param userType       UserType to move
+	 * @param deadlineNanos  Value of System.nanoTime() to return by
+	 * @return               Best movekey of the last depth searched completely
+	 */
+	public int selectNextMove(Board board, IUserType userType, long deadlineNanos) {
+		prepareSearch(board);
+		prepareTable(board);
+		this.deadlineNanos = deadlineNanos;
+		int maxDepth = getSearchDepth(board);
+		startHelpers(board, userType, maxDepth);
+		int bestMovekey = 0;
+		for (int depth = 1; depth <= maxDepth; depth++) {
+			int movekey = searchRoot(board, userType, depth, bestMovekey);
+			if (this.aborted) { // Moves of the unfinished depth may not have been searched at all
+				break;
+			}
+			bestMovekey = movekey;
+			this.completedDepth = depth;
+			if (this.rootScore > WIN_SCORE / 2 || this.rootScore < -WIN_SCORE / 2) { // Searching deeper won't change a proven result
+				break;
+			}
+			if (System.nanoTime() - deadlineNanos >= 0) {
+				break;
+			}
+			this.hasDeadline = true;
+			this.nextDeadlineCheck = this.nodeCount + DEADLINE_CHECK_INTERVAL;
+		}
+		stopHelpers();
+		return bestMovekey;
+	}
+	
+	/**
+	 * Start the helper threads searching the root deeper and deeper until stopped
+	 * Note: Helpers start at alternating depths so that they don't all search the same depth as the main thread
+	 */
+	private void startHelpers(Board board, IUserType userType, int maxDepth) {
+		if (this.threadCount == 1) {
+			return;
+		}
+		if (this.helpers == null) {
+			this.helpers = new AlphaBetaAgent[this.threadCount - 1];
+			for (int i = 0; i < this.helpers.length; i++) {
+				this.helpers[i] = new AlphaBetaAgent(1);
+				this.helpers[i].orderingRandom = new Random(i + 1);
+				this.helpers[i].moveOrderer = new MoveOrderer(this.helpers[i].orderingRandom);
+			}
+			this.executor = Executors.newFixedThreadPool(this.helpers.length, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "AlphaBetaAgent helper");
+					thread.setDaemon(true); // Don't keep the program running after the game
+					return thread;
+				}
+			});
+		}
+		AtomicBoolean stopSignal = new AtomicBoolean(false);
+		for (int i = 0; i < this.helpers.length; i++) {
+			final AlphaBetaAgent helper = this.helpers[i];
+			final Board helperBoard = board.getDeepCopy(); // Copied in this thread, Board isn't thread safe
+			final IUserType helperUserType = userType;
+			final int helperMaxDepth = maxDepth;
+			final int startDepth = 1 + (i + 1) % 2;
+			helper.transpositionTable = this.transpositionTable;
+			helper.stopSignal = stopSignal;
+			if (this.moveOrderer == null) {
+				helper.moveOrderer = null;
+			} else if (helper.moveOrderer == null) {
+				helper.moveOrderer = new MoveOrderer(helper.orderingRandom);
+			}
+			if (this.evaluator == null) {
+				helper.evaluator = null;
+			} else if (helper.evaluator == null) {
+				helper.evaluator = new PatternEvaluator();
+			}
+			this.helperFutures.add(this.executor.submit(new Callable<Long>() {
+				@Override
+				public Long call() {
+					helper.searchAsHelper(helperBoard, helperUserType, startDepth, helperMaxDepth);
+					return helper.nodeCount;
+				}
+			}));
+		}
+	}
+	
+	/**
+	 * Stop the helper threads and add their node counts to the statistics
+	 */
+	private void stopHelpers() {
+		if (this.threadCount == 1) {
+			return;
+		}
+		this.helpers[0].stopSignal.set(true);
+		for (Future<Long> future : this.helperFutures) {
+			try {
+				this.nodeCount += future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+		this.helperFutures.clear();
+	}
+	
+	/**
+	 * Search the root deeper and deeper in a helper thread until stopped, filling the shared table
+	 */
+	private void searchAsHelper(Board board, IUserType userType, int startDepth, int maxDepth) {
+		prepareSearch(board);
+		this.nextDeadlineCheck = DEADLINE_CHECK_INTERVAL;
+		for (int depth = Math.min(startDepth, maxDepth); depth <= maxDepth; depth++) {
+			searchRoot(board, userType, depth, 0);
+			if (this.aborted) {
+				break;
+			}
+			this.completedDepth = depth;
+		}
+	}
+	
+	/**
+	 * Stop the helper threads of the agent
+	 * Note: The threads are daemon threads, so it's only needed to release them before the program ends
+	 */
+	public void shutdown() {
+		if (this.executor != null) {
+			this.executor.shutdown();
+			this.executor = null;
+			this.helpers = null;
+		}
+	}
+	
+	/**
+	 * Reset the statistics and the buffers for a new search on the board
+	 */
+	private void prepareSearch(Board board) {
+		if (board.isSparse()) { // Too many moves to search
+			throw new IllegalArgumentException();
+		}
+		if (board.getFreeMovekeyCount() == 0) { // No move left
+			throw new IllegalStateException();
+		}
+		this.nodeCount = 0;
+		this.completedDepth = 0;
+		this.hasDeadline = false;
+		this.aborted = false;
+		if (this.moveBuffers.length < board.getFreeMovekeyCount() || this.moveBufferSize < board.getFreeMovekeyCount()) {
+			this.moveBuffers = new int[board.getFreeMovekeyCount()][];
+			this.moveBufferSize = board.getFreeMovekeyCount();
+		}
+		if (this.moveOrderer != null && board.getGeometry() != null) { // Boards without the geometry are searched in the natural order
+			this.moveOrderer.prepare(board);
+		}
+		if (this.evaluator != null) {
+			this.evaluator.reset(board);
+		}
+	}
+	
+	/**
+	 * Clear the table if it has the positions of another board shape
+	 * Note: Called only by the main thread before starting the helpers, which share the table
+	 */
+	private void prepareTable(Board board) {
+		if (this.transpositionTable != null && (board.getRowCount() != this.tableRows || board.getColumnCount() != this.tableCols || board.getWinLength() != this.tableWinLength)) {
+			// Positions of another board shape can have the same key, but not the same value
+			this.transpositionTable.clear();
+			this.tableRows = board.getRowCount();
+			this.tableCols = board.getColumnCount();
+			this.tableWinLength = board.getWinLength();
+		}
+	}
+	
+	private int getSearchDepth(Board board) {
+		if (this.maxDepth == UNLIMITED_DEPTH || this.maxDepth > board.getFreeMovekeyCount()) {
+			return board.getFreeMovekeyCount();
+		} else {
+			return this.maxDepth;
+		}
+	}
+	
+	/**
+	 * Search every move of userType to the depth and keep the score of the best one in rootScore
+	 * @param board         Current state of the board
+	 * @param userType      UserType to move
+	 * @param depth         Number of plies to search
+	 * @param firstMovekey  Movekey to search first, 0 if none
+	 * @return              Best movekey, meaningless if the search is aborted
+	 */
+	private int searchRoot(Board board, IUserType userType, int depth, int firstMovekey) {
+		if (firstMovekey == 0) {
+			firstMovekey = getTableMovekey(board, userType);
+		}
+		int[] movekeys = getMoveBuffer(0);
+		int moveCount = getOrderedMovekeys(board, userType, movekeys, firstMovekey, depth, 0);
+		int bestMovekey = movekeys[0];
+		int alpha = -WIN_SCORE;
+		for (int i = 0; i < moveCount; i++) {
+			int score = searchMove(board, userType, movekeys[i], depth, alpha, WIN_SCORE, 0);
+			if (this.aborted) {
+				break;
+			}
+			if (score > alpha) {
+				alpha = score;
+				bestMovekey = movekeys[i];
+			}
+			if (alpha == WIN_SCORE) { // Winning with this move is the best possible
+				break;
+			}
+		}
+		this.rootScore = alpha;
+		return bestMovekey;
+	}
+	
+	/**
+	 * Set the number of plies to search
+	 * @param maxDepth Depth from 1, or UNLIMITED_DEPTH to search until the end of the game
+	 */
+	public void setMaxDepth(int maxDepth) {
+		if (maxDepth < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.maxDepth = maxDepth;
+	}
+	
+	public int getMaxDepth() {
+		return this.maxDepth;
+	}
+	
+	/**
+	 * Set the table to remember the searched positions across moves and searches
+	 * @param transpositionTable Table to use, which needs to be thread safe with more than one thread, null not to remember the positions
+	 */
+	public void setTranspositionTable(ITranspositionTable transpositionTable) {
+		if (transpositionTable != null && this.threadCount > 1 && !transpositionTable.isThreadSafe()) {
+			throw new IllegalArgumentException();
+		}
+		this.transpositionTable = transpositionTable;
+		this.tableRows = 0; // Unknown positions may be in the table
+	}
+	
+	public ITranspositionTable getTranspositionTable() {
+		return this.transpositionTable;
+	}
+	
+	/**
+	 * Search one more ply at a time until the time of a move runs out when selectNextMove(Board) is called
+	 */
+	public void setIterativeDeepening(boolean iterativeDeepening) {
+		this.iterativeDeepening = iterativeDeepening;
+	}
+	
+	public boolean isIterativeDeepening() {
+		return this.iterativeDeepening;
+	}
+	
+	/**
+	 * Set the time of a move to search with iterative deepening
+	 * @param moveTimeMillis Time in milliseconds from the call of selectNextMove(Board)
+	 */
+	public void setMoveTimeMillis(long moveTimeMillis) {
+		if (moveTimeMillis < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.moveTimeMillis = moveTimeMillis;
+	}
+	
+	public long getMoveTimeMillis() {
+		return this.moveTimeMillis;
+	}
+	
+	/**
+	 * Set the orderer of the moves to search
+	 * @param moveOrderer Orderer to use, null to search the moves in the order of the movekeys after the best one known
+	 */
+	public void setMoveOrderer(MoveOrderer moveOrderer) {
+		this.moveOrderer = moveOrderer;
+	}
+	
+	public MoveOrderer getMoveOrderer() {
+		return this.moveOrderer;
+	}
+	
+	/**
+	 * Set the evaluator scoring the positions left unknown at the depth
+	 * Note: Only changes the result of searches limited by the depth or the time, the table is cleared since its scores were found without it
+	 * @param evaluator Evaluator used only by this agent, null to score the positions as a draw
+	 */
+	public void setEvaluator(PatternEvaluator evaluator) {
+		this.evaluator = evaluator;
+		if (this.transpositionTable != null) {
+			this.transpositionTable.clear();
+		}
+	}
+	
+	public PatternEvaluator getEvaluator() {
+		return this.evaluator;
+	}
+	
+	public int getThreadCount() {
+		return this.threadCount;
+	}
+	
+	/**
+	 * Get the number of positions searched by the last selectNextMove in all threads
+	 */
+	public long getNodeCount() {
+		return this.nodeCount;
+	}
+	
+	/**
+	 * Get the depth the last selectNextMove searched completely
+	 */
+	public int getCompletedDepth() {
+		return this.completedDepth;
+	}
+	
+	/**
+	 * Score the position after userType moves to movekey
+	 * @param board    Current state of the board
+	 * @param userType UserType to move
+	 * @param movekey  Movekey to move to
+	 * @param depth    Number of plies left to search including this move
+	 * @param alpha    Score userType is already guaranteed
+	 * @param beta     Score the opponent is already guaranteed, negated
+	 * @param ply      Number of moves made since the root of the search
+	 * @return         Score of the move from userType's side
+	 */
+	private int searchMove(Board board, IUserType userType, int movekey, int depth, int alpha, int beta, int ply) {
+		int score;
+		board.apply(userType, movekey);
+		if (this.evaluator != null) {
+			this.evaluator.apply(userType, movekey);
+		}
+		if (board.isGameOver(userType, movekey)) {
+			score = WIN_SCORE - ply;
+		} else if (board.getFreeMovekeyCount() == 0) { // Draw
+			this.nodeCount++;
+			score = DRAW_SCORE;
+		} else if (depth <= 1) { // Unknown at the depth
+			this.nodeCount++;
+			if (this.evaluator != null) {
+				score = this.evaluator.evaluate(userType);
+			} else {
+				score = DRAW_SCORE;
+			}
+		} else {
+			score = -negamax(board, Game.getOpponentUserType(userType), depth - 1, -beta, -alpha, ply + 1);
+		}
+		if (this.evaluator != null) {
+			this.evaluator.undo(movekey);
+		}
+		board.undo();
+		return score;
+	}
+	
+	/**
+	 * Score the position for userType to move with alpha-beta pruning
+	 * @param board    Current state of the board with at least one available movekey
+	 * @param userType UserType to move
+	 * @param depth    Number of plies left to search
+	 * @param alpha    Lower bound of the score to find
+	 * @param beta     Upper bound of the score to find
+	 * @param ply      Number of moves made since the root of the search
+	 * @return         Score of the position from userType's side
+	 */
+	private int negamax(Board board, IUserType userType, int depth, int alpha, int beta, int ply) {
+		this.nodeCount++;
+		if ((this.hasDeadline || this.stopSignal != null) && this.nodeCount >= this.nextDeadlineCheck) {
+			this.nextDeadlineCheck = this.nodeCount + DEADLINE_CHECK_INTERVAL;
+			if (this.stopSignal != null && this.stopSignal.get()) {
+				this.aborted = true;
+			} else if (this.hasDeadline && System.nanoTime() - this.deadlineNanos >= 0) {
+				this.aborted = true;
+			}
+		}
+		if (this.aborted) { // Score is discarded
+			return 0;
+		}
+		// No line of play can do better than winning with the next move, stop once the window is beyond it
+		int bestPossibleScore = WIN_SCORE - ply;
+		if (beta > bestPossibleScore) {
+			beta = bestPossibleScore;
+			if (alpha >= beta) {
+				return beta;
+			}
+		}
+		if (depth > board.getFreeMovekeyCount()) { // Searching to the end of the game gives the same result for any larger depth
+			depth = board.getFreeMovekeyCount();
+		}
+		
+		// Reuse the result of the same position reached by another move order
+		long key = 0;
+		int tableMovekey = 0;
+		if (this.transpositionTable != null) {
+			key = getPositionKey(board, userType);
+			long result = this.transpositionTable.probe(key);
+			if (result != 0) {
+				tableMovekey = TranspositionTable.unpackBestMovekey(result);
+				if (TranspositionTable.unpackDepth(result) >= depth) {
+					int tableScore = fromTableScore(TranspositionTable.unpackValue(result), ply);
+					int bound = TranspositionTable.unpackBound(result);
+					if (bound == TranspositionTable.EXACT) {
+						return tableScore;
+					} else if (bound == TranspositionTable.LOWER_BOUND && tableScore >= beta) {
+						return tableScore;
+					} else if (bound == TranspositionTable.UPPER_BOUND && tableScore <= alpha) {
+						return tableScore;
+					}
+				}
+			}
+		}
+		
+		int originalAlpha = alpha;
+		int[] movekeys = getMoveBuffer(ply);
+		int moveCount = getOrderedMovekeys(board, userType, movekeys, tableMovekey, depth, ply);
+		int bestScore = -WIN_SCORE;
+		int bestMovekey = 0;
+		for (int i = 0; i < moveCount; i++) {
+			int score = searchMove(board, userType, movekeys[i], depth, alpha, beta, ply);
+			if (this.aborted) { // Don't store the unfinished result
+				return 0;
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				bestMovekey = movekeys[i];
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) { // Opponent won't allow this line
+						if (this.moveOrderer != null && board.getGeometry() != null) {
+							this.moveOrderer.recordCutoff(bestMovekey, ply, depth);
+						}
+						break;
+					}
+				}
+			}
+		}
+		
+		if (this.transpositionTable != null) {
+			int bound;
+			if (bestScore <= originalAlpha) {
+				bound = TranspositionTable.UPPER_BOUND;
+			} else if (bestScore >= beta) {
+				bound = TranspositionTable.LOWER_BOUND;
+			} else {
+				bound = TranspositionTable.EXACT;
+			}
+			this.transpositionTable.store(key, toTableScore(bestScore, ply), bound, depth, bestMovekey);
+		}
+		return bestScore;
+	}
+	
+	/**
+	 * Get the hash of the position including the user to move
+	 */
+	private static long getPositionKey(Board board, IUserType userType) {
+		if (userType == Game.getAgentUserType()) {
+			return board.getZobristKey() ^ X_TO_MOVE_KEY;
+		} else {
+			return board.getZobristKey();
+		}
+	}
+	
+	/**
+	 * Get the best movekey of the position stored in the table
+	 * @return  Movekey stored, 0 if unknown
+	 */
+	private int getTableMovekey(Board board, IUserType userType) {
+		if (this.transpositionTable == null) {
+			return 0;
+		}
+		return TranspositionTable.unpackBestMovekey(this.transpositionTable.probe(getPositionKey(board, userType)));
+	}
+	
+	/**
+	 * Convert the score counting plies from the root to the score counting plies from the position to store
+	 * Note: The same position can be reached at different plies, so the wins and losses are stored relative to it
+	 */
+	private static int toTableScore(int score, int ply) {
+		if (score > WIN_SCORE / 2) {
+			return score + ply;
+		} else if (score < -WIN_SCORE / 2) {
+			return score - ply;
+		} else {
+			return score;
+		}
+	}
+	
+	private static int fromTableScore(int tableScore, int ply) {
+		if (tableScore > WIN_SCORE / 2) {
+			return tableScore - ply;
+		} else if (tableScore < -WIN_SCORE / 2) {
+			return tableScore + ply;
+		} else {
+			return tableScore;
+		}
+	}
+	
+	/**
+	 * Copy the available movekeys in the order to search them
+	 * @param board         Current state of the board
+	 * @param userType      UserType to move
+	 * @param movekeys      Buffer to copy the movekeys to
+	 * @param firstMovekey  Movekey to search first such as the best one of the previous search, 0 if none
+	 * @param depth         Number of plies left to search
+	 * @param ply           Number of moves made since the root of the search
+	 * @return              Number of movekeys copied
+	 */
+	private int getOrderedMovekeys(Board board, IUserType userType, int[] movekeys, int firstMovekey, int depth, int ply) {
+		int moveCount = board.getFreeMovekeys(movekeys);
+		Arrays.sort(movekeys, 0, moveCount); // Free movekeys are in no particular order, sort to make the search reproducible
+		if (this.moveOrderer != null && depth >= MIN_ORDERING_DEPTH && board.getGeometry() != null) {
+			this.moveOrderer.orderMoves(board, userType, movekeys, moveCount, firstMovekey, ply);
+			return moveCount;
+		}
+		int orderedCount = 0;
+		if (firstMovekey != 0) {
+			for (int i = 0; i < moveCount; i++) {
+				if (movekeys[i] == firstMovekey) {
+					System.arraycopy(movekeys, 0, movekeys, 1, i);
+					movekeys[0] = firstMovekey;
+					orderedCount = 1;
+					break;
+				}
+			}
+		}
+		if (this.orderingRandom != null) {
+			// Helper threads shuffle the rest of the moves to search other lines than the main thread first
+			for (int i = moveCount - 1; i > orderedCount; i--) {
+				int j = orderedCount + this.orderingRandom.nextInt(i - orderedCount + 1);
+				int swap = movekeys[i];
+				movekeys[i] = movekeys[j];
+				movekeys[j] = swap;
+			}
+		}
+		return moveCount;
+	}
+	
+	/**
+	 * Get the movekey buffer of the ply, allocated on the first use
+	 */
+	private int[] getMoveBuffer(int ply) {
+		if (this.moveBuffers[ply] == null) {
+			this.moveBuffers[ply] = new int[this.moveBufferSize];
+		}
+		return this.moveBuffers[ply];
+	}
+}
@@ -0,0 +1,92 @@
+package com.tictactoe.agent;
+
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+
+/**
+ * Agent playing the move scored best by PatternEvaluator without searching, for boards too large to search like 15x15
+ * Wins at once if it can and blocks a win of the opponent, otherwise plays the free cell near the moves made
+ * which raises its own runs and would have raised the opponent's runs the most
+ * Note: Not thread safe, every thread calling selectNextMove needs its own agent
+ */
+public class GreedyAgent extends AbstractAgent {
+	// Free cells up to this many cells away from a move in any direction are candidates
+	private static final int CANDIDATE_DISTANCE = 2;
+	
+	// Own runs weigh more than the opponent's so that making an open run beats blocking one of the same length
+	private static final int ATTACK_WEIGHT = 2;
+	private static final int DEFENSE_WEIGHT = 1;
+	
+	private final PatternEvaluator evaluator = new PatternEvaluator();
+	
+	GreedyAgent() {}
+	
+	@Override
+	public int selectNextMove(Board board) {
+		return selectNextMove(board, Game.getAgentUserType());
+	}
+	
+	/**
+	 * Decide the move of userType
+	 * Note: Among moves of the same score, the one nearest to the center is chosen, then the smallest movekey
+	 * @param board    Current state of the board, not sparse
+	 * @param userType UserType to move
+	 * @return         Movekey decided
+	 */
+	public int selectNextMove(Board board, IUserType userType) {
+		if (board.getFreeMovekeyCount() == 0) { // No move left
+			throw new IllegalStateException();
+		}
+		this.evaluator.reset(board);
+		IUserType opponentUserType = Game.getOpponentUserType(userType);
+		int rows = board.getRowCount();
+		int cols = board.getColumnCount();
+		int bestMovekey = 0;
+		long bestScore = Long.MIN_VALUE;
+		int blockingMovekey = 0;
+		for (int movekey = 1; movekey <= board.getCellCount(); movekey++) {
+			if (!board.isAvailable(movekey) || (board.getMoveCount() > 0 && !isNearMove(board, movekey))) {
+				continue;
+			}
+			if (board.isWinningMove(userType, movekey)) {
+				return movekey;
+			}
+			if (blockingMovekey == 0 && board.isWinningMove(opponentUserType, movekey)) {
+				blockingMovekey = movekey;
+			}
+			long score = (long) ATTACK_WEIGHT * this.evaluator.getMoveScore(userType, movekey)
+					+ (long) DEFENSE_WEIGHT * this.evaluator.getMoveScore(opponentUserType, movekey);
+			// Doubled distance from the center breaks ties in the lower bits
+			int i = (movekey - 1) / cols;
+			int j = (movekey - 1) % cols;
+			int centerDistance = Math.abs(2 * i - (rows - 1)) + Math.abs(2 * j - (cols - 1));
+			score = score * 2 * (rows + cols) - centerDistance;
+			if (score > bestScore) {
+				bestScore = score;
+				bestMovekey = movekey;
+			}
+		}
+		if (blockingMovekey != 0) {
+			return blockingMovekey;
+		}
+		return bestMovekey;
+	}
+	
+	/**
+	 * Tell if a move is made within CANDIDATE_DISTANCE of the movekey
+	 */
+	private static boolean isNearMove(Board board, int movekey) {
+		int cols = board.getColumnCount();
+		int i = (movekey - 1) / cols;
+		int j = (movekey - 1) % cols;
+		for (int x = Math.max(i - CANDIDATE_DISTANCE, 0); x <= Math.min(i + CANDIDATE_DISTANCE, board.getRowCount() - 1); x++) {
+			for (int y = Math.max(j - CANDIDATE_DISTANCE, 0); y <= Math.min(j + CANDIDATE_DISTANCE, cols - 1); y++) {
+				if (board.getUserTypeAt(x, y) != null) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
@@ -4,4 +4,20 @@ import com.tictactoe.core.Board;
 
 public interface IAgent {
 	public int selectNextMove(Board board);
+	
+	/**
+	 * Decide the next move by the deadline
+	 * @param board          Current state of the board
+	 * @param deadlineNanos  Value of System.nanoTime() to return by
+	 * @return               Movekey decided
+	 */
+	public int selectNextMove(Board board, long deadlineNanos);
+	
+	/**
+	 * Decide the next moves on independent boards in one call
+	 * Note: Lets agents reuse their buffers and tables across the boards and search them in parallel
+	 * @param boards    Current states of the boards
+	 * @param movekeys  Array to fill with the movekey decided for the board of the same index
+	 */
+	public void selectNextMoves(Board[] boards, int[] movekeys);
 }
@@ -0,0 +1,34 @@
+package com.tictactoe.agent;
+
+/**
+ * Table of search results keyed by the hash of the position
+ * Results are packed into a long by TranspositionTable.pack() to read them at once
+ */
+public interface ITranspositionTable {
+	/**
+	 * Find the result of the position
+	 * @param key  Hash of the position
+	 * @return     Packed result to read with TranspositionTable.unpack*(), 0 if the position isn't stored
+	 */
+	public long probe(long key);
+	
+	/**
+	 * Store the search result of the position
+	 * @param key          Hash of the position
+	 * @param value        Value found by the search
+	 * @param bound        TranspositionTable.EXACT, LOWER_BOUND or UPPER_BOUND
+	 * @param depth        Number of plies searched to find the value
+	 * @param bestMovekey  Best movekey found, 0 if unknown
+	 */
+	public void store(long key, int value, int bound, int depth, int bestMovekey);
+	
+	/**
+	 * Remove every entry keeping the allocated memory
+	 */
+	public void clear();
+	
+	/**
+	 * Tell if several threads can probe and store at the same time
+	 */
+	public boolean isThreadSafe();
+}
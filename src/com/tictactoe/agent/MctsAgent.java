@@ -0,0 +1,684 @@
+package com.tictactoe.agent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+
+/**
+ * Agent playing the move visited most by Monte Carlo Tree Search with UCT
+ * Every thread applies the moves to its own copy of the board and the threads share the trees as set by Parallelization
+ * Note: Not thread safe, the threads of the agent search one selectNextMove at a time
+ */
+public class MctsAgent extends AbstractAgent {
+	public enum Parallelization {
+		ROOT, // Every thread grows its own tree and the visits of the moves are summed up
+		TREE // Threads grow one shared tree with atomic statistics and virtual loss
+	};
+
+	public static final int DEFAULT_ITERATION_BUDGET = 100000;
+	public static final int UNLIMITED_ITERATIONS = 0;
+
+	// Exploration constant of UCT, sqrt(2) for rewards from 0 to 1
+	private static final double EXPLORATION = Math.sqrt(2);
+	// Number of playouts between the checks of the deadline
+	private static final int DEADLINE_CHECK_INTERVAL = 64;
+	// Visits added to the nodes on the path of a playout in progress to turn the other threads to other moves
+	private static final int VIRTUAL_LOSS = 1;
+
+	private final int threadCount;
+	private final Parallelization parallelization;
+	private ExecutorService executor; // Created on the first search
+	private final Random random = new Random();
+	private int iterationBudget = DEFAULT_ITERATION_BUDGET; // Playouts of all threads per move
+	private long moveTimeMillis = 0; // Time per move, 0 for no limit
+
+	private long playoutCount; // Statistics of the last selectNextMove or selectNextMoves
+	private long elapsedNanos;
+	private int searchThreadCount; // Threads that ran playouts in the last call
+
+	MctsAgent() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	MctsAgent(int threadCount) {
+		this(threadCount, Parallelization.ROOT);
+	}
+
+	MctsAgent(int threadCount, Parallelization parallelization) {
+		if (threadCount <= 0 || parallelization == null) {
+			throw new IllegalArgumentException();
+		}
+		this.threadCount = threadCount;
+		this.parallelization = parallelization;
+	}
+
+	@Override
+	public int selectNextMove(Board board) {
+		if (this.moveTimeMillis > 0) {
+			return selectNextMove(board, Game.getAgentUserType(), System.nanoTime() + this.moveTimeMillis * 1000000L);
+		} else {
+			return selectNextMove(board, Game.getAgentUserType(), Long.MAX_VALUE);
+		}
+	}
+
+	@Override
+	public int selectNextMove(Board board, long deadlineNanos) {
+		return selectNextMove(board, Game.getAgentUserType(), deadlineNanos);
+	}
+
+	/**
+	 * Run playouts until the iteration budget is used up or the deadline passes and return the most visited move
+	 * @param board          Current state of the board, which isn't modified
+	 * @param userType       UserType to move
+	 * @param deadlineNanos  Value of System.nanoTime() to return by, Long.MAX_VALUE for no deadline
+	 * @return               Movekey decided
+	 */
+	public int selectNextMove(Board board, IUserType userType, long deadlineNanos) {
+		if (board.isSparse()) { // Too many moves to expand
+			throw new IllegalArgumentException();
+		}
+		if (board.getFreeMovekeyCount() == 0) { // No move left
+			throw new IllegalStateException();
+		}
+		if (this.iterationBudget == UNLIMITED_ITERATIONS && deadlineNanos == Long.MAX_VALUE) { // Search would never end
+			throw new IllegalStateException();
+		}
+		long start = System.nanoTime();
+
+		long[] visitCounts;
+		if (this.parallelization == Parallelization.TREE) {
+			visitCounts = searchSharedTree(board, userType, deadlineNanos);
+		} else {
+			visitCounts = searchOwnTrees(board, userType, deadlineNanos);
+		}
+		this.elapsedNanos = System.nanoTime() - start;
+		return getMostVisitedMovekey(board, visitCounts);
+	}
+
+	/**
+	 * Search the boards for the agent's moves, each board in one thread with the whole iteration budget
+	 * Boards are queued to the threads at once, so the threads search them back to back without waiting
+	 * for each result, and the throughput grows with the threads without splitting the budget of a move
+	 * Note: Only the iteration budget limits the searches, the move time is ignored
+	 * @param boards    Current states of the boards, which aren't modified
+	 * @param movekeys  Array to fill with the movekey decided for the board of the same index
+	 */
+	@Override
+	public void selectNextMoves(Board[] boards, int[] movekeys) {
+		if (movekeys.length < boards.length) {
+			throw new IllegalArgumentException();
+		}
+		for (Board board : boards) {
+			if (board.isSparse()) { // Too many moves to expand
+				throw new IllegalArgumentException();
+			}
+			if (board.getFreeMovekeyCount() == 0) { // No move left
+				throw new IllegalStateException();
+			}
+		}
+		if (this.iterationBudget == UNLIMITED_ITERATIONS) { // Search would never end
+			throw new IllegalStateException();
+		}
+		long start = System.nanoTime();
+
+		List<Future<SearchResult>> futures = new ArrayList<Future<SearchResult>>();
+		for (Board board : boards) {
+			futures.add(getExecutor().submit(new SearchTask(board.getDeepCopy(), Game.getAgentUserType(), this.iterationBudget, Long.MAX_VALUE, this.random.nextLong())));
+		}
+		this.playoutCount = 0;
+		this.searchThreadCount = Math.min(this.threadCount, boards.length);
+		for (int i = 0; i < boards.length; i++) {
+			SearchResult result = getResult(futures.get(i));
+			movekeys[i] = getMostVisitedMovekey(boards[i], result.visitCounts);
+			this.playoutCount += result.playoutCount;
+		}
+		this.elapsedNanos = System.nanoTime() - start;
+	}
+
+	/**
+	 * Get the most visited move, which is the most reliable, the smallest movekey among the same visits
+	 * @param visitCounts Visits of the moves indexed by movekey - 1
+	 */
+	private static int getMostVisitedMovekey(Board board, long[] visitCounts) {
+		int bestMovekey = 0;
+		long bestVisitCount = -1;
+		for (int movekey = 1; movekey <= visitCounts.length; movekey++) {
+			if (board.isAvailable(movekey) && visitCounts[movekey - 1] > bestVisitCount) {
+				bestVisitCount = visitCounts[movekey - 1];
+				bestMovekey = movekey;
+			}
+		}
+		return bestMovekey;
+	}
+
+	/**
+	 * Let every thread grow its own tree and sum up the visits of the moves at the roots
+	 * @return  Visits of the moves indexed by movekey - 1
+	 */
+	private long[] searchOwnTrees(Board board, IUserType userType, long deadlineNanos) {
+		List<Future<SearchResult>> futures = new ArrayList<Future<SearchResult>>();
+		for (int i = 0; i < this.threadCount; i++) {
+			int iterations = UNLIMITED_ITERATIONS;
+			if (this.iterationBudget != UNLIMITED_ITERATIONS) {
+				// Split the budget so that the threads run the budget in total
+				iterations = this.iterationBudget / this.threadCount + (i < this.iterationBudget % this.threadCount ? 1 : 0);
+				if (iterations == 0) { // Budget smaller than the threads, 0 would mean unlimited
+					continue;
+				}
+			}
+			futures.add(getExecutor().submit(new SearchTask(board.getDeepCopy(), userType, iterations, deadlineNanos, this.random.nextLong())));
+		}
+		long[] visitCounts = new long[board.getCellCount()];
+		this.playoutCount = 0;
+		this.searchThreadCount = futures.size();
+		for (Future<SearchResult> future : futures) {
+			SearchResult result = getResult(future);
+			for (int cell = 0; cell < visitCounts.length; cell++) {
+				visitCounts[cell] += result.visitCounts[cell];
+			}
+			this.playoutCount += result.playoutCount;
+		}
+		return visitCounts;
+	}
+
+	/**
+	 * Let every thread grow one shared tree and get the visits of the moves at the root
+	 * @return  Visits of the moves indexed by movekey - 1
+	 */
+	private long[] searchSharedTree(Board board, IUserType userType, long deadlineNanos) {
+		SharedNode root = new SharedNode(null, 0, Game.getOpponentUserType(userType), board, this.random);
+		AtomicLong remainingIterations = new AtomicLong(this.iterationBudget);
+		List<Future<SearchResult>> futures = new ArrayList<Future<SearchResult>>();
+		for (int i = 0; i < this.threadCount; i++) {
+			futures.add(getExecutor().submit(new SharedTreeSearchTask(root, board.getDeepCopy(), remainingIterations, this.iterationBudget == UNLIMITED_ITERATIONS, deadlineNanos, this.random.nextLong())));
+		}
+		this.playoutCount = 0;
+		this.searchThreadCount = this.threadCount;
+		for (Future<SearchResult> future : futures) {
+			this.playoutCount += getResult(future).playoutCount;
+		}
+		long[] visitCounts = new long[board.getCellCount()];
+		for (int i = 0; i < root.children.length(); i++) {
+			SharedNode child = root.children.get(i);
+			if (child != null) {
+				visitCounts[child.movekey - 1] = child.visitCount;
+			}
+		}
+		return visitCounts;
+	}
+
+	/**
+	 * Set the number of playouts of all threads per move
+	 * @param iterationBudget Number of playouts, or UNLIMITED_ITERATIONS to stop only at the deadline
+	 */
+	public void setIterationBudget(int iterationBudget) {
+		if (iterationBudget < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.iterationBudget = iterationBudget;
+	}
+
+	public int getIterationBudget() {
+		return this.iterationBudget;
+	}
+
+	/**
+	 * Set the time of a move when selectNextMove(Board) is called
+	 * @param moveTimeMillis Time in milliseconds, 0 to stop only on the iteration budget
+	 */
+	public void setMoveTimeMillis(long moveTimeMillis) {
+		if (moveTimeMillis < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.moveTimeMillis = moveTimeMillis;
+	}
+
+	public long getMoveTimeMillis() {
+		return this.moveTimeMillis;
+	}
+
+	public int getThreadCount() {
+		return this.threadCount;
+	}
+
+	public Parallelization getParallelization() {
+		return this.parallelization;
+	}
+
+	/**
+	 * Get the number of playouts of all threads in the last selectNextMove, or of all boards in the last selectNextMoves
+	 */
+	public long getPlayoutCount() {
+		return this.playoutCount;
+	}
+
+	/**
+	 * Get the time the last selectNextMove or selectNextMoves took in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
+	}
+
+	/**
+	 * Get the throughput of a thread in the last selectNextMove to size the number of cores
+	 * Note: Only the threads that ran playouts count, fewer than the threads when the budget or the boards are fewer
+	 * @return  Playouts per second per thread
+	 */
+	public double getPlayoutsPerSecondPerThread() {
+		if (this.elapsedNanos == 0 || this.searchThreadCount == 0) {
+			return 0;
+		} else {
+			return this.playoutCount / (this.elapsedNanos / 1e9) / this.searchThreadCount;
+		}
+	}
+
+	/**
+	 * Stop the threads of the agent
+	 * Note: The threads are daemon threads, so it's only needed to release them before the program ends
+	 */
+	public void shutdown() {
+		if (this.executor != null) {
+			this.executor.shutdown();
+			this.executor = null;
+		}
+	}
+
+	private ExecutorService getExecutor() {
+		if (this.executor == null) {
+			this.executor = Executors.newFixedThreadPool(this.threadCount, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "MctsAgent");
+					thread.setDaemon(true); // Don't keep the program running after the game
+					return thread;
+				}
+			});
+		}
+		return this.executor;
+	}
+
+	private static SearchResult getResult(Future<SearchResult> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Visits of the moves at the root of the tree of a thread
+	 */
+	private static class SearchResult {
+		private final long[] visitCounts; // Indexed by movekey - 1
+		private final long playoutCount;
+
+		private SearchResult(long[] visitCounts, long playoutCount) {
+			this.visitCounts = visitCounts;
+			this.playoutCount = playoutCount;
+		}
+	}
+
+	/**
+	 * Position in the tree reached by a move
+	 */
+	private static class Node {
+		private final Node parent;
+		private final int movekey; // Move reaching the node, 0 for the root
+		private final IUserType userType; // UserType who made the move, whose rewards are summed up
+		private final IUserType winner; // Winner if the move ends the game
+		private final boolean terminal; // Whether the game is over by the move
+		private final int[] untriedMovekeys; // Moves not expanded yet in the first untriedCount elements
+		private int untriedCount;
+		private final List<Node> children = new ArrayList<Node>();
+		private int visitCount;
+		private double rewardSum; // 1 for a win, 0.5 for a draw of userType
+
+		private Node(Node parent, int movekey, IUserType userType, Board board) {
+			this.parent = parent;
+			this.movekey = movekey;
+			this.userType = userType;
+			if (movekey != 0 && board.isGameOver(userType, movekey)) {
+				this.terminal = true;
+				this.winner = userType;
+			} else if (board.getFreeMovekeyCount() == 0) {
+				this.terminal = true;
+				this.winner = null;
+			} else {
+				this.terminal = false;
+				this.winner = null;
+			}
+			if (this.terminal) {
+				this.untriedMovekeys = new int[0];
+			} else {
+				this.untriedMovekeys = new int[board.getFreeMovekeyCount()];
+				this.untriedCount = board.getFreeMovekeys(this.untriedMovekeys);
+			}
+		}
+
+		/**
+		 * Select the child of the best upper confidence bound
+		 */
+		private Node selectChild() {
+			double logVisitCount = Math.log(this.visitCount);
+			Node bestChild = null;
+			double bestBound = Double.NEGATIVE_INFINITY;
+			for (Node child : this.children) {
+				double bound = child.rewardSum / child.visitCount + EXPLORATION * Math.sqrt(logVisitCount / child.visitCount);
+				if (bound > bestBound) {
+					bestBound = bound;
+					bestChild = child;
+				}
+			}
+			return bestChild;
+		}
+	}
+
+	/**
+	 * Grow a tree from the position of the board in a thread
+	 */
+	private static class SearchTask implements Callable<SearchResult> {
+		private final Board board; // Own copy of the board to apply the moves of the playouts to
+		private final IUserType userType;
+		private final int iterations;
+		private final long deadlineNanos;
+		private final Random random;
+
+		private SearchTask(Board board, IUserType userType, int iterations, long deadlineNanos, long seed) {
+			this.board = board;
+			this.userType = userType;
+			this.iterations = iterations;
+			this.deadlineNanos = deadlineNanos;
+			this.random = new Random(seed);
+		}
+
+		@Override
+		public SearchResult call() {
+			// Root is reached by the opponent's move, so that its children score userType's moves
+			Node root = new Node(null, 0, Game.getOpponentUserType(this.userType), this.board);
+			long playoutCount = 0;
+			while (this.iterations == UNLIMITED_ITERATIONS || playoutCount < this.iterations) {
+				if (playoutCount % DEADLINE_CHECK_INTERVAL == 0 && playoutCount > 0 && System.nanoTime() - this.deadlineNanos >= 0) {
+					break;
+				}
+				runIteration(root);
+				playoutCount++;
+			}
+			long[] visitCounts = new long[this.board.getCellCount()];
+			for (Node child : root.children) {
+				visitCounts[child.movekey - 1] = child.visitCount;
+			}
+			return new SearchResult(visitCounts, playoutCount);
+		}
+
+		/**
+		 * Select a leaf, expand one move, play out at random and update the nodes on the path
+		 */
+		private void runIteration(Node root) {
+			int appliedCount = 0;
+			Node node = root;
+			// Selection: Follow the best bounds while every move of the node is expanded
+			while (!node.terminal && node.untriedCount == 0) {
+				node = node.selectChild();
+				this.board.apply(node.userType, node.movekey);
+				appliedCount++;
+			}
+			// Expansion: Add a child of a random untried move
+			if (!node.terminal) {
+				int index = this.random.nextInt(node.untriedCount);
+				int movekey = node.untriedMovekeys[index];
+				node.untriedMovekeys[index] = node.untriedMovekeys[--node.untriedCount];
+				IUserType userType = Game.getOpponentUserType(node.userType);
+				this.board.apply(userType, movekey);
+				appliedCount++;
+				Node child = new Node(node, movekey, userType, this.board);
+				node.children.add(child);
+				node = child;
+			}
+			// Playout: Play random moves until the game is over
+			IUserType winner = node.winner;
+			if (!node.terminal) {
+				IUserType userType = node.userType;
+				while (this.board.getFreeMovekeyCount() > 0) {
+					userType = Game.getOpponentUserType(userType);
+					int movekey = this.board.getRandomFreeMovekey(this.random);
+					this.board.apply(userType, movekey);
+					appliedCount++;
+					if (this.board.isGameOver(userType, movekey)) {
+						winner = userType;
+						break;
+					}
+				}
+			}
+			for (int i = 0; i < appliedCount; i++) {
+				this.board.undo();
+			}
+			// Backpropagation: Reward each node from the side of the user who made its move
+			while (node != null) {
+				node.visitCount++;
+				if (winner == null) {
+					node.rewardSum += 0.5;
+				} else if (winner == node.userType) {
+					node.rewardSum += 1;
+				}
+				node = node.parent;
+			}
+		}
+	}
+
+	/**
+	 * Position in the tree shared by the threads, updated without locks
+	 * Note: The statistics include the virtual losses of the playouts in progress
+	 */
+	private static class SharedNode {
+		private static final AtomicIntegerFieldUpdater<SharedNode> VISIT_COUNT_UPDATER = AtomicIntegerFieldUpdater.newUpdater(SharedNode.class, "visitCount");
+		private static final AtomicLongFieldUpdater<SharedNode> REWARD_UPDATER = AtomicLongFieldUpdater.newUpdater(SharedNode.class, "halfRewardSum");
+		private static final AtomicIntegerFieldUpdater<SharedNode> EXPANDED_COUNT_UPDATER = AtomicIntegerFieldUpdater.newUpdater(SharedNode.class, "expandedCount");
+
+		private final SharedNode parent;
+		private final int movekey; // Move reaching the node, 0 for the root
+		private final IUserType userType; // UserType who made the move, whose rewards are summed up
+		private final IUserType winner; // Winner if the move ends the game
+		private final boolean terminal; // Whether the game is over by the move
+		private final int[] movekeys; // Moves of the children in the order to expand them
+		private final AtomicReferenceArray<SharedNode> children; // Published in the order of movekeys once expanded
+		private volatile int visitCount;
+		private volatile long halfRewardSum; // 2 for a win, 1 for a draw of userType to add up as an integer
+		private volatile int expandedCount; // Number of children claimed by the threads to expand
+
+		private SharedNode(SharedNode parent, int movekey, IUserType userType, Board board, Random random) {
+			this.parent = parent;
+			this.movekey = movekey;
+			this.userType = userType;
+			if (movekey != 0 && board.isGameOver(userType, movekey)) {
+				this.terminal = true;
+				this.winner = userType;
+			} else if (board.getFreeMovekeyCount() == 0) {
+				this.terminal = true;
+				this.winner = null;
+			} else {
+				this.terminal = false;
+				this.winner = null;
+			}
+			if (this.terminal) {
+				this.movekeys = new int[0];
+			} else {
+				this.movekeys = new int[board.getFreeMovekeyCount()];
+				board.getFreeMovekeys(this.movekeys);
+				// Shuffle to expand the moves in a random order
+				for (int i = this.movekeys.length - 1; i > 0; i--) {
+					int j = random.nextInt(i + 1);
+					int swap = this.movekeys[i];
+					this.movekeys[i] = this.movekeys[j];
+					this.movekeys[j] = swap;
+				}
+			}
+			this.children = new AtomicReferenceArray<SharedNode>(this.movekeys.length);
+		}
+
+		/**
+		 * Claim one of the moves not expanded yet
+		 * @return  Index of the move to expand, -1 if every move is claimed
+		 */
+		private int claimExpansion() {
+			while (true) {
+				int expandedCount = this.expandedCount;
+				if (expandedCount >= this.movekeys.length) {
+					return -1;
+				}
+				if (EXPANDED_COUNT_UPDATER.compareAndSet(this, expandedCount, expandedCount + 1)) {
+					return expandedCount;
+				}
+			}
+		}
+
+		/**
+		 * Select the child of the best upper confidence bound among the published children
+		 * @return  Child selected, null if no child is published yet
+		 */
+		private SharedNode selectChild() {
+			double logVisitCount = Math.log(Math.max(this.visitCount, 1));
+			SharedNode bestChild = null;
+			double bestBound = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < this.children.length(); i++) {
+				SharedNode child = this.children.get(i);
+				if (child == null) { // Claimed by another thread but not published yet
+					continue;
+				}
+				int childVisitCount = Math.max(child.visitCount, 1);
+				double bound = child.halfRewardSum / 2.0 / childVisitCount + EXPLORATION * Math.sqrt(logVisitCount / childVisitCount);
+				if (bound > bestBound) {
+					bestBound = bound;
+					bestChild = child;
+				}
+			}
+			return bestChild;
+		}
+
+		private void addVirtualLoss() {
+			VISIT_COUNT_UPDATER.addAndGet(this, VIRTUAL_LOSS);
+		}
+
+		/**
+		 * Replace the virtual loss with the visit of the finished playout
+		 */
+		private void update(int halfReward) {
+			VISIT_COUNT_UPDATER.addAndGet(this, 1 - VIRTUAL_LOSS);
+			if (halfReward != 0) {
+				REWARD_UPDATER.addAndGet(this, halfReward);
+			}
+		}
+	}
+
+	/**
+	 * Grow the shared tree from the position of the board in a thread
+	 */
+	private static class SharedTreeSearchTask implements Callable<SearchResult> {
+		private final SharedNode root;
+		private final Board board; // Own copy of the board to apply the moves of the playouts to
+		private final AtomicLong remainingIterations; // Shared by the threads
+		private final boolean unlimitedIterations;
+		private final long deadlineNanos;
+		private final Random random;
+
+		private SharedTreeSearchTask(SharedNode root, Board board, AtomicLong remainingIterations, boolean unlimitedIterations, long deadlineNanos, long seed) {
+			this.root = root;
+			this.board = board;
+			this.remainingIterations = remainingIterations;
+			this.unlimitedIterations = unlimitedIterations;
+			this.deadlineNanos = deadlineNanos;
+			this.random = new Random(seed);
+		}
+
+		@Override
+		public SearchResult call() {
+			long playoutCount = 0;
+			while (this.unlimitedIterations || this.remainingIterations.getAndDecrement() > 0) {
+				if (playoutCount % DEADLINE_CHECK_INTERVAL == 0 && playoutCount > 0 && System.nanoTime() - this.deadlineNanos >= 0) {
+					break;
+				}
+				runIteration();
+				playoutCount++;
+			}
+			return new SearchResult(null, playoutCount);
+		}
+
+		/**
+		 * Select a leaf, expand one move, play out at random and update the nodes on the path
+		 */
+		private void runIteration() {
+			int appliedCount = 0;
+			SharedNode node = this.root;
+			node.addVirtualLoss();
+			while (!node.terminal) {
+				// Expansion: Add a child of a move no other thread has claimed
+				int index = node.claimExpansion();
+				if (index >= 0) {
+					int movekey = node.movekeys[index];
+					IUserType userType = Game.getOpponentUserType(node.userType);
+					this.board.apply(userType, movekey);
+					appliedCount++;
+					SharedNode child = new SharedNode(node, movekey, userType, this.board, this.random);
+					child.addVirtualLoss();
+					node.children.set(index, child);
+					node = child;
+					break;
+				}
+				// Selection: Follow the best bounds while every move of the node is claimed
+				SharedNode child = node.selectChild();
+				if (child == null) { // Play out from the node until another thread publishes a child
+					break;
+				}
+				child.addVirtualLoss();
+				this.board.apply(child.userType, child.movekey);
+				appliedCount++;
+				node = child;
+			}
+			// Playout: Play random moves until the game is over
+			IUserType winner = node.winner;
+			if (!node.terminal) {
+				IUserType userType = node.userType;
+				while (this.board.getFreeMovekeyCount() > 0) {
+					userType = Game.getOpponentUserType(userType);
+					int movekey = this.board.getRandomFreeMovekey(this.random);
+					this.board.apply(userType, movekey);
+					appliedCount++;
+					if (this.board.isGameOver(userType, movekey)) {
+						winner = userType;
+						break;
+					}
+				}
+			}
+			for (int i = 0; i < appliedCount; i++) {
+				this.board.undo();
+			}
+			// Backpropagation: Reward each node from the side of the user who made its move
+			while (node != null) {
+				if (winner == null) {
+					node.update(1);
+				} else if (winner == node.userType) {
+					node.update(2);
+				} else {
+					node.update(0);
+				}
+				node = node.parent;
+			}
+		}
+	}
+}
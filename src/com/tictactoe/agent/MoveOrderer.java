@@ -0,0 +1,169 @@
+package com.tictactoe.agent;
+
+import java.util.Random;
+
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+import com.tictactoe.util.BoardGeometry;
+
+/**
+ * Orders the moves of a search so that the moves most likely to cut off the search come first
+ * Moves are ordered by priority: the first movekey given such as the best one stored in a table,
+ * moves winning at once, moves blocking a win of the opponent, killer moves of the ply,
+ * and then the rest by the history table with the distance from the center breaking ties
+ * Killer moves and history are learned from the cutoffs reported by the search through recordCutoff
+ * Note: Not thread safe, every search thread needs its own orderer
+ */
+public class MoveOrderer {
+	public static final int KILLER_SLOTS = 2; // Killer moves kept per ply
+	
+	// Priority tiers in the upper bits of the score of a move
+	private static final int TIER_SHIFT = 52;
+	private static final long WIN_TIER = 5;
+	private static final long BLOCK_TIER = 4;
+	private static final long FIRST_KILLER_TIER = 3; // Next slots are the lower tiers
+	private static final long QUIET_TIER = 1;
+	
+	// Quiet moves are scored by the history above the centrality
+	private static final int HISTORY_SHIFT = 20;
+	private static final int MAX_HISTORY = (1 << 26) - 1; // History is halved when a count reaches it
+	private static final int CENTRALITY_SHIFT = 2; // Lower bits break ties at random for helper threads
+	
+	private final Random random; // null to break ties by movekey
+	private BoardGeometry geometry;
+	private int winLength;
+	private int[] centrality; // Higher near the center, indexed by movekey
+	private int[] history; // Depth-weighted count of cutoffs indexed by movekey
+	private int[][] killers; // Movekeys indexed by [ply][slot], 0 if none
+	private long[] scores; // Buffer of the scores of the moves to order
+	
+	public MoveOrderer() {
+		this(null);
+	}
+	
+	/**
+	 * Create an orderer breaking the ties of quiet moves at random
+	 * Note: Lets searches of the same position in parallel try different moves first
+	 * @param random Random source, null to break ties by movekey
+	 */
+	public MoveOrderer(Random random) {
+		this.random = random;
+	}
+	
+	/**
+	 * Get ready to order the moves of a new search on the board
+	 * History of the previous searches on the board shape is kept at half the weight, killer moves are forgotten
+	 * @param board Board to search, not sparse
+	 */
+	public void prepare(Board board) {
+		BoardGeometry geometry = board.getGeometry();
+		if (geometry == null) { // Sparse boards are too large to keep a table per cell
+			throw new IllegalArgumentException();
+		}
+		if (geometry != this.geometry || board.getWinLength() != this.winLength) {
+			this.geometry = geometry;
+			this.winLength = board.getWinLength();
+			int cellCount = geometry.getCellCount();
+			this.centrality = new int[cellCount + 1];
+			for (int movekey = 1; movekey <= cellCount; movekey++) {
+				// Doubled distance from the center so that boards of an even size have integer distances
+				int rowDistance = Math.abs(2 * geometry.getRow(movekey) - (geometry.getRowCount() - 1));
+				int columnDistance = Math.abs(2 * geometry.getColumn(movekey) - (geometry.getColumnCount() - 1));
+				this.centrality[movekey] = geometry.getRowCount() + geometry.getColumnCount() - rowDistance - columnDistance;
+			}
+			this.history = new int[cellCount + 1];
+			this.killers = new int[cellCount + 1][KILLER_SLOTS];
+			this.scores = new long[cellCount];
+		} else {
+			ageHistory();
+			for (int[] plyKillers : this.killers) {
+				for (int slot = 0; slot < KILLER_SLOTS; slot++) {
+					plyKillers[slot] = 0;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Sort the movekeys in the order to search them
+	 * @param board         Current state of the board
+	 * @param userType      UserType to move
+	 * @param movekeys      Available movekeys to sort in place
+	 * @param moveCount     Number of movekeys
+	 * @param firstMovekey  Movekey to search first such as the best one of the previous search, 0 if none
+	 * @param ply           Number of moves made since the root of the search
+	 */
+	public void orderMoves(Board board, IUserType userType, int[] movekeys, int moveCount, int firstMovekey, int ply) {
+		IUserType opponent = Game.getOpponentUserType(userType);
+		int[] plyKillers = this.killers[ply];
+		for (int i = 0; i < moveCount; i++) {
+			int movekey = movekeys[i];
+			long score;
+			if (movekey == firstMovekey) {
+				score = Long.MAX_VALUE;
+			} else if (board.isWinningMove(userType, movekey)) {
+				score = WIN_TIER << TIER_SHIFT;
+			} else if (board.isWinningMove(opponent, movekey)) {
+				score = BLOCK_TIER << TIER_SHIFT;
+			} else {
+				score = (QUIET_TIER << TIER_SHIFT) | ((long) this.history[movekey] << HISTORY_SHIFT) | (this.centrality[movekey] << CENTRALITY_SHIFT);
+				for (int slot = 0; slot < KILLER_SLOTS; slot++) {
+					if (plyKillers[slot] == movekey) {
+						score = (FIRST_KILLER_TIER - slot) << TIER_SHIFT;
+						break;
+					}
+				}
+				if (this.random != null) {
+					score += this.random.nextInt(1 << CENTRALITY_SHIFT);
+				}
+			}
+			this.scores[i] = score;
+		}
+		// Insertion sort by descending score, stable so that equal moves stay in the given order
+		for (int i = 1; i < moveCount; i++) {
+			long score = this.scores[i];
+			int movekey = movekeys[i];
+			int j = i - 1;
+			while (j >= 0 && this.scores[j] < score) {
+				this.scores[j + 1] = this.scores[j];
+				movekeys[j + 1] = movekeys[j];
+				j--;
+			}
+			this.scores[j + 1] = score;
+			movekeys[j + 1] = movekey;
+		}
+	}
+	
+	/**
+	 * Learn from a move causing a cutoff of the search
+	 * @param movekey  Movekey cutting off the search
+	 * @param ply      Number of moves made since the root of the search
+	 * @param depth    Number of plies searched below the position, deeper cutoffs weighing more
+	 */
+	public void recordCutoff(int movekey, int ply, int depth) {
+		int[] plyKillers = this.killers[ply];
+		if (plyKillers[0] != movekey) {
+			System.arraycopy(plyKillers, 0, plyKillers, 1, KILLER_SLOTS - 1);
+			plyKillers[0] = movekey;
+		}
+		this.history[movekey] = (int) Math.min((long) this.history[movekey] + (long) depth * depth, MAX_HISTORY);
+		if (this.history[movekey] == MAX_HISTORY) {
+			ageHistory();
+		}
+	}
+	
+	public int getHistory(int movekey) {
+		return this.history[movekey];
+	}
+	
+	public int getKiller(int ply, int slot) {
+		return this.killers[ply][slot];
+	}
+	
+	private void ageHistory() {
+		for (int movekey = 0; movekey < this.history.length; movekey++) {
+			this.history[movekey] >>= 1;
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package com.tictactoe.agent;
+
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+
+/**
+ * Scores positions of k-in-a-row boards by the runs of consecutive moves along the four directions
+ * A run of 2 to winLength - 1 moves scores by its length and whether it's open (a free cell at both ends)
+ * or closed (a free cell at one end), runs without room around them to ever make winLength score nothing
+ * Scores are kept per line and updated on each move, so a move only rescans the lines through its cell
+ * Note: Not thread safe, every search thread needs its own evaluator
+ */
+public class PatternEvaluator {
+	// Scores stay below the wins of AlphaBetaAgent so that the evaluation of a position is never taken for a win
+	public static final int MAX_SCORE = 400000;
+	
+	// Score of an open run missing the index number of moves to winLength, a closed run scores a tenth of it
+	private static final int[] OPEN_RUN_SCORES = {0, 10000, 1000, 100, 10, 1};
+	private static final int COMPLETE_RUN_SCORE = 100000; // Run of winLength or more, only seen after the game is over
+	
+	// Directions of the lines: horizontal, vertical and both diagonals
+	private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+	
+	private static final byte EMPTY = 0; // Cells hold Game.getUserTypeIndex + 1 of the move on them
+	
+	private int rows;
+	private int cols;
+	private int winLength;
+	private int[] openScores; // Indexed by the length of the run
+	private int[] closedScores;
+	private byte[] cells; // Indexed by movekey - 1
+	private int[][] lineScores; // Score of O minus the score of X indexed by [direction][line]
+	private int score; // Sum of the line scores
+	private byte[] lineBuffer; // Cells of the line being scanned
+	
+	/**
+	 * Load the board and score every line of it
+	 * Note: Needs to be called before the other methods and again whenever the board changes other than by apply and undo
+	 * @param board Board to score, not sparse
+	 */
+	public void reset(Board board) {
+		if (board.isSparse()) { // Too large to keep a table per cell
+			throw new IllegalArgumentException();
+		}
+		if (this.cells == null || board.getRowCount() != this.rows || board.getColumnCount() != this.cols || board.getWinLength() != this.winLength) {
+			this.rows = board.getRowCount();
+			this.cols = board.getColumnCount();
+			this.winLength = board.getWinLength();
+			this.openScores = new int[this.winLength + 1];
+			this.closedScores = new int[this.winLength + 1];
+			for (int length = 2; length <= this.winLength; length++) {
+				int missing = this.winLength - length;
+				if (missing == 0) {
+					this.openScores[length] = COMPLETE_RUN_SCORE;
+					this.closedScores[length] = COMPLETE_RUN_SCORE;
+				} else {
+					this.openScores[length] = OPEN_RUN_SCORES[Math.min(missing, OPEN_RUN_SCORES.length - 1)];
+					this.closedScores[length] = this.openScores[length] / 10;
+				}
+			}
+			this.cells = new byte[this.rows * this.cols];
+			this.lineScores = new int[DIRECTIONS.length][];
+			this.lineScores[0] = new int[this.rows];
+			this.lineScores[1] = new int[this.cols];
+			this.lineScores[2] = new int[this.rows + this.cols - 1];
+			this.lineScores[3] = new int[this.rows + this.cols - 1];
+			this.lineBuffer = new byte[Math.max(this.rows, this.cols)];
+		}
+		for (int i = 0; i < this.rows; i++) {
+			for (int j = 0; j < this.cols; j++) {
+				IUserType userType = board.getUserTypeAt(i, j);
+				if (userType == null) {
+					this.cells[i * this.cols + j] = EMPTY;
+				} else {
+					this.cells[i * this.cols + j] = (byte) (Game.getUserTypeIndex(userType) + 1);
+				}
+			}
+		}
+		this.score = 0;
+		for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+			for (int line = 0; line < this.lineScores[direction].length; line++) {
+				this.lineScores[direction][line] = scoreLine(direction, line);
+				this.score += this.lineScores[direction][line];
+			}
+		}
+	}
+	
+	/**
+	 * Put the move and rescore the lines through it
+	 * @param userType  UserType of the user to make the move
+	 * @param movekey   Free movekey to put
+	 */
+	public void apply(IUserType userType, int movekey) {
+		if (this.cells[movekey - 1] != EMPTY) {
+			throw new IllegalArgumentException();
+		}
+		this.cells[movekey - 1] = (byte) (Game.getUserTypeIndex(userType) + 1);
+		updateLines(movekey);
+	}
+	
+	/**
+	 * Take back the move and rescore the lines through it
+	 * @param movekey Movekey of a move put by apply
+	 */
+	public void undo(int movekey) {
+		if (this.cells[movekey - 1] == EMPTY) {
+			throw new IllegalArgumentException();
+		}
+		this.cells[movekey - 1] = EMPTY;
+		updateLines(movekey);
+	}
+	
+	/**
+	 * Get the score of the position
+	 * @param userType UserType to score the position for
+	 * @return         Score of userType's runs minus the opponent's, from -MAX_SCORE to MAX_SCORE
+	 */
+	public int evaluate(IUserType userType) {
+		int score = Math.max(-MAX_SCORE, Math.min(this.score, MAX_SCORE));
+		if (Game.getUserTypeIndex(userType) == 0) {
+			return score;
+		} else {
+			return -score;
+		}
+	}
+	
+	/**
+	 * Get how much a move of userType would change the score without keeping it
+	 * Note: Includes the runs of the opponent the move breaks, only the lines through the movekey are rescanned
+	 * @param userType  UserType to move
+	 * @param movekey   Free movekey
+	 * @return          Score of userType after the move minus the score before it, not limited to MAX_SCORE
+	 */
+	public int getMoveScore(IUserType userType, int movekey) {
+		int scoreBefore = this.score;
+		apply(userType, movekey);
+		int scoreAfter = this.score;
+		undo(movekey);
+		if (Game.getUserTypeIndex(userType) == 0) {
+			return scoreAfter - scoreBefore;
+		} else {
+			return scoreBefore - scoreAfter;
+		}
+	}
+	
+	/**
+	 * Rescore the four lines through the movekey
+	 */
+	private void updateLines(int movekey) {
+		int i = (movekey - 1) / this.cols;
+		int j = (movekey - 1) % this.cols;
+		updateLine(0, i);
+		updateLine(1, j);
+		updateLine(2, j - i + this.rows - 1);
+		updateLine(3, i + j);
+	}
+	
+	private void updateLine(int direction, int line) {
+		int lineScore = scoreLine(direction, line);
+		this.score += lineScore - this.lineScores[direction][line];
+		this.lineScores[direction][line] = lineScore;
+	}
+	
+	/**
+	 * Score the runs of both users on the line
+	 * Lines of a direction are numbered by the row, the column, the column minus the row plus rows - 1, or the row plus the column
+	 * @return  Score of O minus the score of X
+	 */
+	private int scoreLine(int direction, int line) {
+		int i;
+		int j;
+		if (direction == 0) {
+			i = line;
+			j = 0;
+		} else if (direction == 1) {
+			i = 0;
+			j = line;
+		} else if (direction == 2) {
+			i = Math.max(this.rows - 1 - line, 0);
+			j = Math.max(line - (this.rows - 1), 0);
+		} else {
+			i = Math.max(line - (this.cols - 1), 0);
+			j = Math.min(line, this.cols - 1);
+		}
+		int length = 0;
+		while (i >= 0 && i < this.rows && j >= 0 && j < this.cols) {
+			this.lineBuffer[length] = this.cells[i * this.cols + j];
+			length++;
+			i += DIRECTIONS[direction][0];
+			j += DIRECTIONS[direction][1];
+		}
+		if (length < this.winLength) { // No line of winLength fits
+			return 0;
+		}
+		return scoreRuns(length, (byte) 1) - scoreRuns(length, (byte) 2);
+	}
+	
+	/**
+	 * Score the runs of the cell value in the first length cells of the line buffer
+	 * Runs are scored within the spans not blocked by the opponent, and only in spans of at least winLength cells
+	 */
+	private int scoreRuns(int length, byte value) {
+		int score = 0;
+		int spanStart = 0;
+		while (spanStart < length) {
+			int spanEnd = spanStart; // Exclusive
+			while (spanEnd < length && (this.lineBuffer[spanEnd] == EMPTY || this.lineBuffer[spanEnd] == value)) {
+				spanEnd++;
+			}
+			if (spanEnd - spanStart >= this.winLength) {
+				int runStart = spanStart;
+				while (runStart < spanEnd) {
+					if (this.lineBuffer[runStart] != value) {
+						runStart++;
+						continue;
+					}
+					int runEnd = runStart;
+					while (runEnd < spanEnd && this.lineBuffer[runEnd] == value) {
+						runEnd++;
+					}
+					int runLength = Math.min(runEnd - runStart, this.winLength);
+					// Cells next to the run within the span are free
+					int freeEnds = 0;
+					if (runStart > spanStart) {
+						freeEnds++;
+					}
+					if (runEnd < spanEnd) {
+						freeEnds++;
+					}
+					if (freeEnds == 2 || runLength == this.winLength) {
+						score += this.openScores[runLength];
+					} else if (freeEnds == 1) {
+						score += this.closedScores[runLength];
+					}
+					runStart = runEnd;
+				}
+			}
+			spanStart = spanEnd + 1;
+		}
+		return score;
+	}
+}
@@ -0,0 +1,45 @@
+package com.tictactoe.agent;
+
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+
+/**
+ * Agent playing the optimal move of the 3x3 board looked up in PerfectPlayTable
+ * Other boards are searched by AlphaBetaAgent
+ */
+public class PerfectPlayAgent extends AbstractAgent {
+	private final AlphaBetaAgent alphaBetaAgent = new AlphaBetaAgent();
+	
+	PerfectPlayAgent() {}
+	
+	@Override
+	public int selectNextMove(Board board) {
+		return selectNextMove(board, Game.getAgentUserType());
+	}
+	
+	@Override
+	public int selectNextMove(Board board, long deadlineNanos) {
+		if (!PerfectPlayTable.isSupported(board)) {
+			return this.alphaBetaAgent.selectNextMove(board, Game.getAgentUserType(), deadlineNanos);
+		}
+		return selectNextMove(board, Game.getAgentUserType());
+	}
+	
+	/**
+	 * Look up the optimal move of userType
+	 * @param board    Current state of the board
+	 * @param userType UserType to move
+	 * @return         Movekey decided
+	 */
+	public int selectNextMove(Board board, IUserType userType) {
+		if (!PerfectPlayTable.isSupported(board)) {
+			return this.alphaBetaAgent.selectNextMove(board, userType);
+		}
+		int movekey = PerfectPlayTable.getBestMovekey(board, userType);
+		if (movekey == 0) { // Game is over
+			throw new IllegalStateException();
+		}
+		return movekey;
+	}
+}
@@ -0,0 +1,259 @@
+package com.tictactoe.agent;
+
+import java.io.DataInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+import com.tictactoe.util.BoardGeometry;
+
+/**
+ * Optimal move and game-theoretic value of every position of the 3x3 board for either user to move
+ * A position is indexed by the base-3 number of its cells: 0 for empty, 1 for O and 2 for X, movekey 1 being the lowest digit
+ * Each entry is a byte of the best movekey in the lower 4 bits (0 if the game is over) and the value in the upper bits
+ * Note: The table is shipped as the resource RESOURCE_NAME, run main() to generate it again
+ */
+public class PerfectPlayTable {
+	public static final int BOARD_SIZE = 3;
+	public static final int POSITION_COUNT = 19683; // 3^9
+	public static final String RESOURCE_NAME = "perfect3x3.dat";
+
+	// Game-theoretic values for the user to move
+	public static final int LOSS = 0;
+	public static final int DRAW = 1;
+	public static final int WIN = 2;
+
+	private static final int MOVEKEY_MASK = 0x0F;
+	private static final int VALUE_SHIFT = 4;
+	private static final int[] POWERS_OF_THREE = {1, 3, 9, 27, 81, 243, 729, 2187, 6561};
+
+	// Entries indexed by [Game.getUserTypeIndex of the user to move * POSITION_COUNT + position index]
+	private static final byte[] ENTRIES = loadEntries();
+
+	/**
+	 * Write the table to the file to ship as the resource
+	 * Usage: PerfectPlayTable [outputFile]
+	 */
+	public static void main(String args[]) throws IOException {
+		String outputFile = args.length > 0 ? args[0] : RESOURCE_NAME;
+		OutputStream out = new FileOutputStream(outputFile);
+		try {
+			out.write(generateEntries());
+		} finally {
+			out.close();
+		}
+		System.out.println("Wrote " + (2 * POSITION_COUNT) + " entries to " + outputFile);
+	}
+
+	/**
+	 * Tell if the table has the positions of the board
+	 */
+	public static boolean isSupported(Board board) {
+		if (board.getRowCount() == BOARD_SIZE && board.getColumnCount() == BOARD_SIZE && board.getWinLength() == BOARD_SIZE) {
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * Get the optimal move of userType, preferring the fastest win and the slowest loss
+	 * @param board    3x3 board where the game isn't over
+	 * @param userType UserType to move
+	 * @return         Optimal movekey, 0 if the game is over
+	 */
+	public static int getBestMovekey(Board board, IUserType userType) {
+		return ENTRIES[getEntryIndex(board, userType)] & MOVEKEY_MASK;
+	}
+
+	/**
+	 * Get the result of the game for userType when both users play optimally from the position
+	 * @param board    3x3 board
+	 * @param userType UserType to move
+	 * @return         WIN, DRAW or LOSS for userType
+	 */
+	public static int getValue(Board board, IUserType userType) {
+		return (ENTRIES[getEntryIndex(board, userType)] & 0xFF) >>> VALUE_SHIFT;
+	}
+
+	/**
+	 * Compute the base-3 index of the position on the board
+	 * @param board 3x3 board
+	 * @return      Index from 0 to POSITION_COUNT - 1
+	 */
+	public static int getPositionIndex(Board board) {
+		if (!isSupported(board)) {
+			throw new IllegalArgumentException();
+		}
+		int positionIndex = 0;
+		for (int movekey = 1; movekey <= BOARD_SIZE * BOARD_SIZE; movekey++) {
+			IUserType userType = board.getUserTypeAt(movekey);
+			if (userType != null) {
+				positionIndex += (Game.getUserTypeIndex(userType) + 1) * POWERS_OF_THREE[movekey - 1];
+			}
+		}
+		return positionIndex;
+	}
+
+	private static int getEntryIndex(Board board, IUserType userType) {
+		return Game.getUserTypeIndex(userType) * POSITION_COUNT + getPositionIndex(board);
+	}
+
+	/**
+	 * Load the table from the resource, or generate it if the resource isn't on the class path
+	 */
+	private static byte[] loadEntries() {
+		InputStream in = PerfectPlayTable.class.getResourceAsStream(RESOURCE_NAME);
+		if (in == null) {
+			return generateEntries();
+		}
+		try {
+			byte[] entries = new byte[2 * POSITION_COUNT];
+			DataInputStream dataIn = new DataInputStream(in);
+			try {
+				dataIn.readFully(entries);
+			} finally {
+				dataIn.close();
+			}
+			return entries;
+		} catch (IOException e) {
+			System.err.println("Failed to load " + RESOURCE_NAME + ", generating the table: " + e);
+			return generateEntries();
+		}
+	}
+
+	/**
+	 * Solve every position for both users to move
+	 * @return  Entries of the table
+	 */
+	static byte[] generateEntries() {
+		int[] scores = new int[2 * POSITION_COUNT];
+		boolean[] solved = new boolean[2 * POSITION_COUNT];
+		byte[] entries = new byte[2 * POSITION_COUNT];
+		int[] cells = new int[BOARD_SIZE * BOARD_SIZE];
+		for (int userTypeIndex = 0; userTypeIndex < 2; userTypeIndex++) {
+			for (int positionIndex = 0; positionIndex < POSITION_COUNT; positionIndex++) {
+				decodePosition(positionIndex, cells);
+				int bestMovekey = 0;
+				int bestScore = Integer.MIN_VALUE;
+				if (!isGameOver(cells)) {
+					for (int movekey = 1; movekey <= cells.length; movekey++) {
+						if (cells[movekey - 1] == 0) {
+							int score = solveMove(positionIndex, userTypeIndex, movekey, cells, scores, solved);
+							if (score > bestScore) {
+								bestScore = score;
+								bestMovekey = movekey;
+							}
+						}
+					}
+				}
+				int score = solve(positionIndex, userTypeIndex, cells, scores, solved);
+				int value;
+				if (score > 0) {
+					value = WIN;
+				} else if (score < 0) {
+					value = LOSS;
+				} else {
+					value = DRAW;
+				}
+				entries[userTypeIndex * POSITION_COUNT + positionIndex] = (byte) ((value << VALUE_SHIFT) | bestMovekey);
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Score the position for the user to move, from 10 - plies to win down to -(10 - plies to lose)
+	 * @param positionIndex  Base-3 index of the position
+	 * @param userTypeIndex  Index of the user to move
+	 * @param cells          Buffer for the cells of the position
+	 * @param scores         Scores solved so far
+	 * @param solved         Whether each score is solved
+	 * @return               Score of the position, 0 for a draw
+	 */
+	private static int solve(int positionIndex, int userTypeIndex, int[] cells, int[] scores, boolean[] solved) {
+		int entryIndex = userTypeIndex * POSITION_COUNT + positionIndex;
+		if (solved[entryIndex]) {
+			return scores[entryIndex];
+		}
+		decodePosition(positionIndex, cells);
+		int bestScore;
+		if (hasLine(cells, 2 - userTypeIndex)) { // Opponent has completed a line
+			bestScore = -10;
+		} else if (hasLine(cells, userTypeIndex + 1)) { // Only possible in positions not reachable by the game
+			bestScore = 10;
+		} else {
+			bestScore = Integer.MIN_VALUE;
+			for (int movekey = 1; movekey <= cells.length; movekey++) {
+				if (cells[movekey - 1] == 0) {
+					bestScore = Math.max(bestScore, solveMove(positionIndex, userTypeIndex, movekey, cells, scores, solved));
+				}
+			}
+			if (bestScore == Integer.MIN_VALUE) { // Board is full
+				bestScore = 0;
+			}
+		}
+		scores[entryIndex] = bestScore;
+		solved[entryIndex] = true;
+		return bestScore;
+	}
+
+	/**
+	 * Score the move of the user to move, one ply further from the end than the position after it
+	 * Note: Decodes the position to the cells again after solving the positions after the move
+	 */
+	private static int solveMove(int positionIndex, int userTypeIndex, int movekey, int[] cells, int[] scores, boolean[] solved) {
+		int nextPositionIndex = positionIndex + (userTypeIndex + 1) * POWERS_OF_THREE[movekey - 1];
+		int score = -solve(nextPositionIndex, 1 - userTypeIndex, cells, scores, solved);
+		decodePosition(positionIndex, cells);
+		if (score > 0) {
+			return score - 1;
+		} else if (score < 0) {
+			return score + 1;
+		} else {
+			return 0;
+		}
+	}
+
+	private static void decodePosition(int positionIndex, int[] cells) {
+		for (int cell = 0; cell < cells.length; cell++) {
+			cells[cell] = positionIndex % 3;
+			positionIndex /= 3;
+		}
+	}
+
+	private static boolean isGameOver(int[] cells) {
+		if (hasLine(cells, 1) || hasLine(cells, 2)) {
+			return true;
+		}
+		for (int cell : cells) {
+			if (cell == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Tell if the digit fills any line of the cells
+	 */
+	private static boolean hasLine(int[] cells, int digit) {
+		BoardGeometry geometry = BoardGeometry.getInstance(BOARD_SIZE);
+		for (int lineId = 0; lineId < geometry.getLineCount(); lineId++) {
+			boolean filled = true;
+			for (int movekey : geometry.getLine(lineId)) {
+				if (cells[movekey - 1] != digit) {
+					filled = false;
+				}
+			}
+			if (filled) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,93 @@
+package com.tictactoe.agent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed capacity cache of values computed for positions, shared by threads without locks
+ * Each key maps to a single slot, so a new value replaces the value of another key in the same slot
+ * Note: Values are shared by every thread reading them and must not be modified
+ */
+public class PositionCache<V> {
+	private final AtomicReferenceArray<Entry<V>> entries;
+	private final int mask;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	
+	/**
+	 * Immutable pair of a key and its value, so that a reader never sees the value of another key
+	 */
+	private static final class Entry<V> {
+		private final long key;
+		private final V value;
+		
+		private Entry(long key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+	
+	/**
+	 * Create a cache of at most capacity entries
+	 * @param capacity Maximum number of entries, rounded down to a power of 2
+	 */
+	public PositionCache(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException();
+		}
+		int entryCount = Integer.highestOneBit(capacity);
+		this.entries = new AtomicReferenceArray<Entry<V>>(entryCount);
+		this.mask = entryCount - 1;
+	}
+	
+	/**
+	 * Get the value cached for the key
+	 * @param key  Hash of the position
+	 * @return     Value cached, null if not cached or replaced
+	 */
+	public V get(long key) {
+		Entry<V> entry = this.entries.get(getIndex(key));
+		if (entry != null && entry.key == key) {
+			this.hitCount.incrementAndGet();
+			return entry.value;
+		} else {
+			this.missCount.incrementAndGet();
+			return null;
+		}
+	}
+	
+	/**
+	 * Cache the value for the key, replacing the entry in its slot
+	 * @param key    Hash of the position
+	 * @param value  Value computed for the position, not null
+	 */
+	public void put(long key, V value) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		this.entries.set(getIndex(key), new Entry<V>(key, value));
+	}
+	
+	public void clear() {
+		for (int i = 0; i < this.entries.length(); i++) {
+			this.entries.set(i, null);
+		}
+	}
+	
+	public int getCapacity() {
+		return this.entries.length();
+	}
+	
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+	
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+	
+	private int getIndex(long key) {
+		// Zobrist keys are uniformly random, so the lower bits are enough to spread the positions
+		return (int) (key ^ (key >>> 32)) & this.mask;
+	}
+}
@@ -5,12 +5,21 @@ import java.util.List;
 import java.util.Random;
 
 import com.tictactoe.core.Board;
+import com.tictactoe.core.BoardIndex;
+import com.tictactoe.core.IBoardView;
+import com.tictactoe.util.BoardGeometry;
 import com.tictactoe.util.BoardUtil;
 import com.tictactoe.core.Game;
 import com.tictactoe.core.Game.IUserType;
 
 
 public class RationalAgent extends AbstractAgent {
+	// Results of allowFork shared by every RationalAgent, keyed by the canonical form of the position
+	private static final int CACHE_CAPACITY = 1 << 16;
+	private static final PositionCache<Boolean> ALLOW_FORK_CACHE = new PositionCache<Boolean>(CACHE_CAPACITY);
+	
+	// Mixed into the cache keys so that the analysis of each user has its own entries, Zobrist keys already tell the board shapes apart
+	private static final long AGENT_KEY = 0x6A09E667F3BCC909L;
 	
 	RationalAgent() {}
 	
@@ -34,14 +43,16 @@ public class RationalAgent extends AbstractAgent {
 	 */
 	@Override
 	public int selectNextMove(Board board) {
-		IUserType[][] matrix = board.getMatrix();
+		if (board.isSparse()) { // No geometry to look up the lines through the cells
+			throw new IllegalArgumentException();
+		}
 		List<Integer> agentPositionList = board.getBoardIndex().getPositionList(Game.getAgentUserType());
 		List<Integer> userPositionList = board.getBoardIndex().getPositionList(Game.getUserUserType());
 		Random random = new Random();
 		
 		if (agentPositionList.size() >= (board.getSize() - 1)) {
 			// 1) Check if able to win the game
-			List<Integer> winmoveList = getWinningMoveList(matrix, Game.getAgentUserType());
+			List<Integer> winmoveList = getWinningMoveList(board, Game.getAgentUserType());
 			if (!winmoveList.isEmpty()) { 
 				int winmoveListIndex = random.nextInt(winmoveList.size());
 				return winmoveList.get(winmoveListIndex);
@@ -49,7 +60,7 @@ public class RationalAgent extends AbstractAgent {
 		}
 		if (userPositionList.size() >= (board.getSize() - 1)) {
 			// 2) Check if loose the game without a block
-			List<Integer> blockmoveList = getWinningMoveList(matrix, Game.getUserUserType());
+			List<Integer> blockmoveList = getWinningMoveList(board, Game.getUserUserType());
 			if (!blockmoveList.isEmpty()) { 
 				int blockmoveListIndex = random.nextInt(blockmoveList.size());
 				System.out.println("Block a win");
@@ -58,7 +69,7 @@ public class RationalAgent extends AbstractAgent {
 		}
 		if (agentPositionList.size() >= (board.getSize() - 1)) {
 			// 3) Check if able to create a fork
-			List<Integer> forkmoveList = getForkingMoveList(matrix, Game.getAgentUserType());
+			List<Integer> forkmoveList = getForkingMoveList(board, Game.getAgentUserType());
 			if (!forkmoveList.isEmpty()) {
 				int forkmoveListIndex = random.nextInt(forkmoveList.size());
 				System.out.println("Create a fork");
@@ -68,15 +79,15 @@ public class RationalAgent extends AbstractAgent {
 		
 		if (userPositionList.size() >= (board.getSize() - 1)) {
 			// 4) Check if need to block a fork as long as it doesn't result in the opponent to fork
-			List<Integer> forkblockList = getForkingMoveList(matrix, Game.getUserUserType());
+			List<Integer> forkblockList = getForkingMoveList(board, Game.getUserUserType());
 			if (!forkblockList.isEmpty()) {
 				List<Integer> reachingList = new ArrayList<Integer>(); // List of fork block moves that force opponent to defend
 				List<Integer> forkAllowingList = new ArrayList<Integer>(); // List of moves that allow a later fork
 				for (int movekey : forkblockList) {
-					if (allowFork(matrix, Game.getAgentUserType(), movekey)) {
+					if (allowFork(board, Game.getAgentUserType(), movekey)) {
 						forkAllowingList.add(movekey);
 					} else {
-						if (canReach(matrix, Game.getAgentUserType(), movekey)) {
+						if (canReach(board, Game.getAgentUserType(), movekey)) {
 							reachingList.add(movekey);
 						}
 					}
@@ -96,18 +107,18 @@ public class RationalAgent extends AbstractAgent {
 		}
 		
 		// 5) Get the center if available as long as it doesn't result in the opponent to fork
-		int centerMovekey = BoardUtil.getCenterMovekey(board.getSize());
-		if (centerMovekey != -1 && board.isAvailable(centerMovekey) && !allowFork(matrix, Game.getAgentUserType(), centerMovekey)) { // If center exists, is available and don't allow fork
+		int centerMovekey = BoardGeometry.getInstance(board.getSize()).getCenterMovekey();
+		if (centerMovekey != -1 && board.isAvailable(centerMovekey) && !allowFork(board, Game.getAgentUserType(), centerMovekey)) { // If center exists, is available and don't allow fork
 			System.out.println("Get the center");
 			return centerMovekey;
 		}
 		
 		// 6) Opposite Corner: If the opponent is in the corner, play the opposite corner as long as it doesn't result in the opponent to fork
-		List<Integer> userCornerList = getUserCornerList(matrix, Game.getUserUserType());
+		List<Integer> userCornerList = getUserCornerList(board, Game.getUserUserType());
 		if (!userCornerList.isEmpty()) {
 			List<Integer> availableOppositeCornerList = new ArrayList<Integer>();
 			for (Integer cornerMovekey : userCornerList) {
-				int oppositeCornerMovekey = getOppositeCornerMovekey(cornerMovekey, board.getSize());
+				int oppositeCornerMovekey = BoardGeometry.getInstance(board.getSize()).getOppositeCornerMovekey(cornerMovekey);
 				if (board.isAvailable(oppositeCornerMovekey)) {
 					availableOppositeCornerList.add(oppositeCornerMovekey);
 				}
@@ -116,7 +127,7 @@ public class RationalAgent extends AbstractAgent {
 			if (!availableOppositeCornerList.isEmpty()) {
 				List<Integer> unforkableOppositeConerList = new ArrayList<Integer>();
 				for (int oppositeCornerMove : availableOppositeCornerList) {
-					if (!allowFork(matrix, Game.getUserUserType(), oppositeCornerMove)) {
+					if (!allowFork(board, Game.getUserUserType(), oppositeCornerMove)) {
 						unforkableOppositeConerList.add(oppositeCornerMove);
 					}
 				}
@@ -129,7 +140,7 @@ public class RationalAgent extends AbstractAgent {
 		}
 		
 		// 7) Empty corner: Play in a corner square.
-		List<Integer> availableCornerList = getUserCornerList(matrix, null);
+		List<Integer> availableCornerList = getUserCornerList(board, null);
 		if (!availableCornerList.isEmpty()) {
 			System.out.println("Get an availabe corner");
 			int availableCornerListIndex = random.nextInt(availableCornerList.size());
@@ -159,129 +170,124 @@ public class RationalAgent extends AbstractAgent {
 	
 	/**
 	 * Investigate the current state of the board to see if there are moves that winningUserType can win
-	 * @param matrix               Current state of the board
+	 * @param board                Current state of the board with the board index
 	 * @param winningUserType      UserType of the user to get the winning move
-	 * @return                     List of winning movekeys if exist, null if not
+	 * @return                     List of winning movekeys in the order of the lines
 	 */
-	private static List<Integer> getWinningMoveList(IUserType[][] matrix, IUserType winningUserType) {
-		int boardSize = matrix.length;
+	private static List<Integer> getWinningMoveList(Board board, IUserType winningUserType) {
+		BoardIndex boardIndex = board.getBoardIndex();
+		BoardGeometry geometry = board.getGeometry();
+		IUserType opponentUserType = Game.getOpponentUserType(winningUserType);
 		List<Integer> winningMoveList = new ArrayList<Integer>();
-		// Analyze the board and add winning movekeys to the list
-		// 1) Horizontal line
-		int winmove = -1;
-		int winusercount = 0; // Count of winningUserType on each line
-		for (int i = 0; i < boardSize; i++) {
-			for (int j = 0; j < boardSize; j++) {
-				if (winningUserType.equals(matrix[i][j])) {
-					winusercount++;
-				}
-				if (matrix[i][j] == null) {
-					winmove = BoardUtil.computeMovekeyFromIndices(boardSize, i, j);
-				}
-			}
-			if (winusercount == (boardSize - 1) && winmove != -1) {
-				winningMoveList.add(winmove);
-			}
-			winmove = -1;
-			winusercount = 0;
-		}
-		
-		// Reinitialize winmove and winusercount for vertical line check
-		winmove = -1; 
-		winusercount = 0;
-		// 2) Vertical line
-		for (int j = 0; j < boardSize; j++) {
-			for (int i = 0; i < boardSize; i++) {
-				if (winningUserType.equals(matrix[i][j])) {
-					winusercount++;
-				}
-				if (matrix[i][j] == null) {
-					winmove = BoardUtil.computeMovekeyFromIndices(boardSize, i, j);
+		for (int lineId = 0; lineId < geometry.getLineCount(); lineId++) {
+			if (isWinningLine(boardIndex, board.getSize(), winningUserType, opponentUserType, lineId)) {
+				for (int movekey : geometry.getLine(lineId)) {
+					if (board.isAvailable(movekey)) { // The only cell left on the line
+						winningMoveList.add(movekey);
+						break;
+					}
 				}
 			}
-			if (winusercount == (boardSize - 1) && winmove != -1) {
-				winningMoveList.add(winmove);
-			}
-			winmove = -1;
-			winusercount = 0;
 		}
-		
-		// 3) diagonal line
-		for (int i = 0; i < boardSize; i++) { // Left top to right bottom
-			if (winningUserType.equals(matrix[i][i])) {
-				winusercount++;
-			}
-			if (matrix[i][i] == null) {
-				winmove = BoardUtil.computeMovekeyFromIndices(boardSize, i, i);
-			}
-		}
-		if (winusercount == (boardSize - 1) && winmove != -1) {
-			winningMoveList.add(winmove);
-		}
-		// Reinitialize winmove and winusercount for the next diagonal line check
-		winmove = -1; 
-		winusercount = 0;
-		for (int i = 0; i < boardSize; i++) { // Right top to left bottom
-			if (winningUserType.equals(matrix[i][boardSize - 1 - i])) {
-				winusercount++;
-			}
-			if (matrix[i][boardSize - 1 - i] == null) {
-				winmove = BoardUtil.computeMovekeyFromIndices(boardSize, i, boardSize - 1 - i);
-			}
-		}
-		if (winusercount == (boardSize - 1) && winmove != -1) {
-			winningMoveList.add(winmove);
-		}
-		
 		return winningMoveList;
 	}
 	
+	/**
+	 * Tell if userType has all but one cell of the line and the last one is available
+	 */
+	private static boolean isWinningLine(BoardIndex boardIndex, int boardSize, IUserType userType, IUserType opponentUserType, int lineId) {
+		if (boardIndex.getLineCount(userType, lineId) == boardSize - 1 && boardIndex.getLineCount(opponentUserType, lineId) == 0) {
+			return true;
+		} else {
+			return false;
+		}
+	}
+	
 	/**
 	 * Investigate the current state of the board to see if there are moves that forkingUserType can fork
-	 * @param matrix               Current state of the board
+	 * @param board                Current state of the board with the board index
 	 * @param forkingUserType      UserType of the user to get the forking move
-	 * @return                     List of forking movekeys
+	 * @return                     List of forking movekeys in ascending order
 	 */
-	private static List<Integer> getForkingMoveList(IUserType[][] matrix, IUserType forkingUserType) {
-		int boardSize = matrix.length;
+	private static List<Integer> getForkingMoveList(Board board, IUserType forkingUserType) {
 		List<Integer> forkingMoveList = new ArrayList<Integer>();
-		IUserType[][] matrixCopy = new IUserType[boardSize][boardSize]; // Copy of the current matrix for temporal modification	
-		// Analyze the board and add forking movekeys to the list
-		for (int i = 0; i < boardSize; i++) {
-			for (int j = 0; j < boardSize; j++) {
-				if (matrix[i][j] == null) { // Check if available
-					matrixCopy = BoardUtil.getDeepCopy(matrix); // Deep copy the current matrix
-					matrixCopy[i][j] = forkingUserType; // Put the forking User's move temporally to see if it makes a fork
-					List<Integer> winningMoveList = getWinningMoveList(matrixCopy, forkingUserType);
-					if (winningMoveList.size() >= 2) { // Check if forked
-						forkingMoveList.add(BoardUtil.computeMovekeyFromIndices(boardSize, i, j));
-					}
+		findForkingMoves(board, forkingUserType, forkingMoveList);
+		return forkingMoveList;
+	}
+	
+	/**
+	 * Count the moves that forkingUserType can fork with on the current state of the board
+	 * A move forks if it leaves at least two winning lines: the lines through it where it makes one,
+	 * and the winning lines already on the board which it doesn't fill
+	 * @param board                Current state of the board with the board index
+	 * @param forkingUserType      UserType of the user to get the forking move
+	 * @param forkingMoveList      List to add the forking movekeys to, null to just count them
+	 * @return                     Count of forking moves
+	 */
+	private static int findForkingMoves(Board board, IUserType forkingUserType, List<Integer> forkingMoveList) {
+		BoardIndex boardIndex = board.getBoardIndex();
+		BoardGeometry geometry = board.getGeometry();
+		int boardSize = board.getSize();
+		IUserType opponentUserType = Game.getOpponentUserType(forkingUserType);
+		int winningLineCount = 0;
+		for (int lineId = 0; lineId < geometry.getLineCount(); lineId++) {
+			if (isWinningLine(boardIndex, boardSize, forkingUserType, opponentUserType, lineId)) {
+				winningLineCount++;
+			}
+		}
+		int forkmoveCount = 0;
+		for (int movekey = 1; movekey <= boardSize * boardSize; movekey++) {
+			if (!board.isAvailable(movekey)) {
+				continue;
+			}
+			int winmoveCount = winningLineCount;
+			for (int lineId : geometry.getLineIds(movekey)) {
+				if (boardIndex.getLineCount(opponentUserType, lineId) != 0) {
+					continue;
+				}
+				int count = boardIndex.getLineCount(forkingUserType, lineId);
+				if (count == boardSize - 2) { // Move makes a winning line
+					winmoveCount++;
+				} else if (count == boardSize - 1) { // Move fills the winning line
+					winmoveCount--;
 				}
 			}
+			if (winmoveCount >= 2) { // Check if forked
+				if (forkingMoveList != null) {
+					forkingMoveList.add(movekey);
+				}
+				forkmoveCount++;
+			}
 		}
-		return forkingMoveList;
+		return forkmoveCount;
+	}
+	
+	/**
+	 * Get the key of the analysis of userType on the position in ALLOW_FORK_CACHE
+	 * @param userType     UserType the analysis is for
+	 * @param zobristKey   Zobrist key of the canonical form of the position
+	 * @return             Key of the cache entry
+	 */
+	private static long getCacheKey(IUserType userType, long zobristKey) {
+		long key = zobristKey;
+		if (userType == Game.getAgentUserType()) {
+			key ^= AGENT_KEY;
+		}
+		return key;
 	}
 	
 	/**
 	 * Get the list of corner moves userType has made
-	 * @param matrix      	Current state of the board
+	 * @param board      	Current state of the board
 	 * @param userType      UserType of the user to get the list of corner moves, null to check the list of available corners
 	 * @return              List of userType's corner movekeys
 	 */
-	private static List<Integer> getUserCornerList(IUserType[][] matrix, IUserType userType) {
-		int boardSize = matrix.length;
+	private static List<Integer> getUserCornerList(IBoardView board, IUserType userType) {
 		List<Integer> cornerMoveList = new ArrayList<Integer>();
-		if ((userType == null && matrix[0][0] == null) || userType == matrix[0][0]) {
-			cornerMoveList.add(BoardUtil.computeMovekeyFromIndices(boardSize, 0, 0));
-		}
-		if ((userType == null && matrix[0][boardSize - 1] == null) || userType == matrix[0][boardSize - 1]) {
-			cornerMoveList.add(BoardUtil.computeMovekeyFromIndices(boardSize, 0, boardSize - 1));
-		}
-		if ((userType == null && matrix[boardSize - 1][0] == null) || userType == matrix[boardSize - 1][0]) {
-			cornerMoveList.add(BoardUtil.computeMovekeyFromIndices(boardSize, boardSize - 1, 0));
-		}
-		if ((userType == null && matrix[boardSize - 1][boardSize - 1] == null) || userType == matrix[boardSize - 1][boardSize - 1]) {
-			cornerMoveList.add(BoardUtil.computeMovekeyFromIndices(boardSize, boardSize - 1, boardSize - 1));
+		for (int cornerMovekey : BoardGeometry.getInstance(board.getSize()).getCornerMovekeys()) {
+			if (userType == board.getUserTypeAt(cornerMovekey)) { // Null userType matches the available corners
+				cornerMoveList.add(cornerMovekey);
+			}
 		}
 
 		return cornerMoveList;
@@ -289,129 +295,56 @@ public class RationalAgent extends AbstractAgent {
 	
 	/**
 	 * Tell if userType allows the opponent to fork after placing at movekey
-	 * @param matrix   Current state of the board
+	 * Note: Cached per position after the placement
+	 * @param board    Current state of the board
 	 * @param userType UserType of the user to place the move
 	 * @param movekey  movekey for the userType of the user to make a placement
 	 * @return         true if the placement allows a reach, false if not
 	 */
-	private boolean allowFork(IUserType[][] matrix, IUserType userType, int movekey) {
+	private boolean allowFork(Board board, IUserType userType, int movekey) {
 		IUserType opponentUserType;
 		if (userType.equals(Game.getAgentUserType())) {
 			opponentUserType = Game.getUserUserType();
 		} else {
 			opponentUserType = Game.getAgentUserType();
 		}
-		IUserType[][] matrixCopy = BoardUtil.getDeepCopy(matrix); // Deep copy the current matrix for temporal modification
-		int boardSize = matrix.length;
-		int[] indices = BoardUtil.computeIndicesFromMovekey(movekey, boardSize);
-		matrixCopy[indices[0]][indices[1]] = userType;
-		for (int i = 0; i < boardSize; i++) {
-			for (int j = 0; j < boardSize; j++) {
-				if (matrixCopy[i][j] == null) {
-					IUserType[][] matrixCopyCopy = BoardUtil.getDeepCopy(matrixCopy); // Deep copy the current matrix for temporal modification
-					matrixCopyCopy[i][j] = opponentUserType;
-					int forks = getForkingMoveList(matrixCopyCopy, opponentUserType).size();
-					if (forks >= 2) { // Allow multiple forks with this move
-						return true;
-					}
+		board.apply(userType, movekey); // Put the move temporally
+		long key = getCacheKey(userType, BoardUtil.getCanonicalZobristKey(board));
+		Boolean cachedForkAllowed = ALLOW_FORK_CACHE.get(key);
+		if (cachedForkAllowed != null) {
+			board.undo();
+			return cachedForkAllowed.booleanValue();
+		}
+		boolean forkAllowed = false;
+		for (int opponentMovekey = 1; opponentMovekey <= board.getSize() * board.getSize() && !forkAllowed; opponentMovekey++) {
+			if (board.isAvailable(opponentMovekey)) {
+				board.apply(opponentUserType, opponentMovekey);
+				if (findForkingMoves(board, opponentUserType, null) >= 2) { // Allow multiple forks with this move
+					forkAllowed = true;
 				}
+				board.undo();
 			}
 		}
-		return false;
+		ALLOW_FORK_CACHE.put(key, Boolean.valueOf(forkAllowed));
+		board.undo(); // Take the temporal move back
+		return forkAllowed;
 	}
 	
 	/**
 	 * Tell if userType can reach a step before win by placing at movekey
-	 * @param matrix   Current state of the board
+	 * @param board    Current state of the board with the board index
 	 * @param userType UserType of the user to check the reachability
 	 * @param movekey  movekey to make a placement for the reach
 	 * @return         true if the placement make a reach, false if not
 	 */
-	private static boolean canReach(IUserType[][] matrix, IUserType userType, int movekey) {
-		int boardSize = matrix.length;
-		IUserType[][] matrixCopy = new IUserType[boardSize][boardSize]; // Copy of the current matrix for temporal modification
-		matrixCopy = BoardUtil.getDeepCopy(matrixCopy); // Deep copy the current matrix
-		int[] indices = BoardUtil.computeIndicesFromMovekey(movekey, boardSize);
-		matrixCopy[indices[0]][indices[1]] = userType; // Place the temporal move to see if it makes a reach
-		
-		// Check a reach depending on the place of the move
-		if (movekey == BoardUtil.getCenterMovekey(boardSize)) { // (1) Center point
-			// 1) Check horizontal line
-			if (BoardUtil.getHorizontalCount(matrixCopy, userType, movekey) == (boardSize - 1)) {
-				return true;
-			}
-			// 2) Check vertical line
-			if (BoardUtil.getHorizontalCount(matrixCopy, userType, movekey) == (boardSize - 1)) {
-				return true;
-			}
-			// 3) Check Left top to right bottom diagonal line
-			if (BoardUtil.getRightDownDiagonalCount(matrixCopy, userType) == (boardSize - 1)) {
-				return true;
-			}
-			// 4) Check Left bottom to right top diagonal line
-			if (BoardUtil.getRightUpDiagonalCount(matrixCopy, userType) == (boardSize - 1)) {
-				return true;
-			}
-			return false;
-		} else if (BoardUtil.isRightDownDiagonalMovekey(movekey, boardSize)) { // (2) Left top to right bottom diagonal line
-			// 1) Check horizontal line
-			if (BoardUtil.getHorizontalCount(matrixCopy, userType, movekey) == (boardSize - 1)) {
-				return true;
-			}
-			// 2) Check vertical line
-			if (BoardUtil.getHorizontalCount(matrixCopy, userType, movekey) == (boardSize - 1)) {
-				return true;
-			}
-			// 3) Check Left top to right bottom diagonal line
-			if (BoardUtil.getRightDownDiagonalCount(matrixCopy, userType) == (boardSize - 1)) {
-				return true;
-			}
-			return false;
-		} else if (BoardUtil.isRightUpDiagonalMovekey(movekey, boardSize)) { // (3) Left bottom to right top diagonal line
-			// 1) Check horizontal line
-			if (BoardUtil.getHorizontalCount(matrixCopy, userType, movekey) == (boardSize - 1)) {
-				return true;
-			}
-			// 2) Check vertical line
-			if (BoardUtil.getHorizontalCount(matrixCopy, userType, movekey) == (boardSize - 1)) {
-				return true;
-			}
-			// 3) Check Left bottom to right top diagonal line
-			if (BoardUtil.getRightUpDiagonalCount(matrixCopy, userType) == (boardSize - 1)) {
-				return true;
-			}
-			return false;
-		} else { // (4) On the side
-			// 1) Check horizontal line
-			if (BoardUtil.getHorizontalCount(matrixCopy, userType, movekey) == (boardSize - 1)) {
+	private static boolean canReach(Board board, IUserType userType, int movekey) {
+		BoardIndex boardIndex = board.getBoardIndex();
+		IUserType opponentUserType = Game.getOpponentUserType(userType);
+		for (int lineId : board.getGeometry().getLineIds(movekey)) {
+			if (boardIndex.getLineCount(userType, lineId) + 1 == board.getSize() - 1 && boardIndex.getLineCount(opponentUserType, lineId) == 0) {
 				return true;
 			}
-			// 2) Check vertical line
-			if (BoardUtil.getHorizontalCount(matrixCopy, userType, movekey) == (boardSize - 1)) {
-				return true;
-			}
-			return false;
 		}
-	}
-
-	/**
-	 * Get the opposite corner movekey
-	 * ex. Opposite corner of movkey: 1 on boardSize: 3 is 9
-	 * @param cornerMovekey Movekey of a corner
-	 * @param boardSize		Size of the board
-	 * @return              Movekey of opposite corner
-	 */
-	private static int getOppositeCornerMovekey(int cornerMovekey, int boardSize) {
-		int[] cornerIndices = BoardUtil.computeIndicesFromMovekey(cornerMovekey, boardSize);
-		if (boardSize < 0 || !BoardUtil.isCornerMovekey(cornerMovekey, boardSize)) {
-			throw new IllegalArgumentException();
-		}
-		int oppositCornerMovekey;
-		if (cornerIndices[0] == cornerIndices[1]) { // Top left or bottom right corner
-			oppositCornerMovekey = (boardSize - cornerIndices[0]) * (boardSize - cornerIndices[1]);
-		} else { // Top right or bottom left corner
-			oppositCornerMovekey = BoardUtil.computeMovekeyFromIndices(boardSize, cornerIndices[1], cornerIndices[0]); // Switch the index and compute the movekey
-		}
-		return oppositCornerMovekey;
+		return false;
 	}
 }
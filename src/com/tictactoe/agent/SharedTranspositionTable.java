@@ -0,0 +1,109 @@
+package com.tictactoe.agent;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.tictactoe.agent.TranspositionTable.ReplacementPolicy;
+
+/**
+ * Fixed capacity table of search results shared by search threads without locks
+ * Each entry is two longs, the key XORed with the packed result and the packed result itself
+ * A reader accepts the entry only if the two longs XOR back to its key, so an entry torn by concurrent writes reads as missing
+ */
+public class SharedTranspositionTable implements ITranspositionTable {
+	// Bytes per entry: key XORed with the result and the result
+	public static final int ENTRY_BYTES = 8 + 8;
+
+	private final ReplacementPolicy replacementPolicy;
+	private final int bucketSize;
+	private final int bucketMask;
+	private final AtomicLongArray entries; // [2 * entry] is key ^ result, [2 * entry + 1] is result
+
+	/**
+	 * Create a table of at most capacity entries
+	 * @param capacity           Maximum number of entries, rounded down to a power of 2
+	 * @param replacementPolicy  Which entry a new result replaces
+	 */
+	public SharedTranspositionTable(int capacity, ReplacementPolicy replacementPolicy) {
+		if (capacity < 2 || capacity > Integer.MAX_VALUE / 2 || replacementPolicy == null) {
+			throw new IllegalArgumentException();
+		}
+		int entryCount = Integer.highestOneBit(capacity);
+		this.replacementPolicy = replacementPolicy;
+		if (replacementPolicy == ReplacementPolicy.DEPTH_PREFERRED) {
+			this.bucketSize = 2;
+		} else {
+			this.bucketSize = 1;
+		}
+		this.bucketMask = entryCount / this.bucketSize - 1;
+		this.entries = new AtomicLongArray(2 * entryCount);
+	}
+
+	/**
+	 * Create a table using at most the memory limit
+	 * @param maxBytes           Memory limit of the entries in bytes
+	 * @param replacementPolicy  Which entry a new result replaces
+	 * @return                   Table of as many entries as fit in the limit
+	 */
+	public static SharedTranspositionTable createWithMemoryLimit(long maxBytes, ReplacementPolicy replacementPolicy) {
+		long capacity = Math.min(maxBytes / ENTRY_BYTES, Integer.MAX_VALUE / 2);
+		return new SharedTranspositionTable((int) capacity, replacementPolicy);
+	}
+
+	@Override
+	public long probe(long key) {
+		int first = getBucketIndex(key);
+		for (int entry = first; entry < first + this.bucketSize; entry++) {
+			long result = this.entries.get(2 * entry + 1);
+			if (result != 0 && (this.entries.get(2 * entry) ^ result) == key) {
+				return result;
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public void store(long key, int value, int bound, int depth, int bestMovekey) {
+		long result = TranspositionTable.pack(value, bound, depth, bestMovekey);
+		int entry = getBucketIndex(key);
+		if (this.replacementPolicy == ReplacementPolicy.DEPTH_PREFERRED) {
+			// Update the entry of the same position if any, else keep the deeper result in the first entry
+			int secondEntry = entry + 1;
+			long firstResult = this.entries.get(2 * entry + 1);
+			long secondResult = this.entries.get(2 * secondEntry + 1);
+			if (secondResult != 0 && (this.entries.get(2 * secondEntry) ^ secondResult) == key) {
+				entry = secondEntry;
+			} else if (firstResult != 0 && (this.entries.get(2 * entry) ^ firstResult) != key
+					&& Math.min(depth, TranspositionTable.MAX_PACKED_DEPTH) < TranspositionTable.unpackDepth(firstResult)) {
+				entry = secondEntry;
+			}
+		}
+		// The two writes aren't atomic together, readers detect a mix of two stores with the XOR
+		this.entries.set(2 * entry, key ^ result);
+		this.entries.set(2 * entry + 1, result);
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < this.entries.length(); i++) {
+			this.entries.set(i, 0);
+		}
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
+	public ReplacementPolicy getReplacementPolicy() {
+		return this.replacementPolicy;
+	}
+
+	public int getCapacity() {
+		return this.entries.length() / 2;
+	}
+
+	private int getBucketIndex(long key) {
+		// Zobrist keys are uniformly random, so the lower bits are enough to spread the positions
+		return ((int) (key ^ (key >>> 32)) & this.bucketMask) * this.bucketSize;
+	}
+}
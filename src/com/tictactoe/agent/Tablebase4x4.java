@@ -0,0 +1,164 @@
+package com.tictactoe.agent;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+
+/**
+ * Game-theoretic value of every position of the 4x4 board (4 in a row), read from the file written by Tablebase4x4Solver
+ * A position is indexed by the base-3 number of its cells from the view of the user to move:
+ * 0 for empty, 1 for the user to move and 2 for the opponent, movekey 1 being the lowest digit
+ * So one table serves either user moving first
+ * Values are packed 2 bits per position, the position 4 * i + k in the bits 2 * k of the byte i
+ * Note: The file is memory-mapped, so the table isn't loaded onto the heap and is paged in as it's read
+ */
+public class Tablebase4x4 {
+	public static final int BOARD_SIZE = 4;
+	public static final int CELL_COUNT = BOARD_SIZE * BOARD_SIZE;
+	public static final int POSITION_COUNT = 43046721; // 3^16
+	public static final int FILE_BYTES = (POSITION_COUNT + 3) / 4;
+	public static final String DEFAULT_FILE_NAME = "tablebase4x4.dat";
+
+	// Game-theoretic values for the user to move
+	public static final int UNSOLVED = 0; // Position not reachable by the game
+	public static final int LOSS = 1;
+	public static final int DRAW = 2;
+	public static final int WIN = 3;
+
+	static final int[] POWERS_OF_THREE = new int[CELL_COUNT];
+	static {
+		int power = 1;
+		for (int cell = 0; cell < CELL_COUNT; cell++) {
+			POWERS_OF_THREE[cell] = power;
+			power *= 3;
+		}
+	}
+
+	private final MappedByteBuffer values;
+
+	private Tablebase4x4(MappedByteBuffer values) {
+		this.values = values;
+	}
+
+	/**
+	 * Map the file written by Tablebase4x4Solver
+	 * @param file  Tablebase file
+	 * @return      Table reading the file
+	 * @throws IOException  If the file can't be read or isn't a tablebase
+	 */
+	public static Tablebase4x4 open(File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			if (channel.size() != FILE_BYTES) {
+				throw new IOException(file + " is not a 4x4 tablebase");
+			}
+			// The mapping stays valid after the file is closed
+			return new Tablebase4x4(channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_BYTES));
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Tell if the table has the positions of the board
+	 */
+	public static boolean isSupported(Board board) {
+		if (board.getRowCount() == BOARD_SIZE && board.getColumnCount() == BOARD_SIZE && board.getWinLength() == BOARD_SIZE) {
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * Get the result of the game for userType when both users play optimally from the position
+	 * @param board    4x4 board
+	 * @param userType UserType to move
+	 * @return         WIN, DRAW or LOSS for userType, UNSOLVED if the position isn't reachable
+	 */
+	public int getValue(Board board, IUserType userType) {
+		return getValue(getPositionIndex(board, userType));
+	}
+
+	/**
+	 * Get the optimal move of userType, preferring a move winning at once
+	 * @param board    4x4 board, which is restored before returning
+	 * @param userType UserType to move
+	 * @return         Optimal movekey, 0 if the game is over
+	 */
+	public int getBestMovekey(Board board, IUserType userType) {
+		IUserType opponent = Game.getOpponentUserType(userType);
+		int bestMovekey = 0;
+		int bestValue = UNSOLVED; // Value for the opponent after the move, LOSS being the best
+		for (int movekey = 1; movekey <= CELL_COUNT; movekey++) {
+			if (!board.isAvailable(movekey)) {
+				continue;
+			}
+			board.apply(userType, movekey);
+			boolean won = board.isGameOver(userType, movekey);
+			int value = getValue(getPositionIndex(board, opponent));
+			board.undo();
+			if (won) {
+				return movekey;
+			}
+			if (bestMovekey == 0 || isWorseForOpponent(bestValue, value)) {
+				bestMovekey = movekey;
+				bestValue = value;
+			}
+		}
+		return bestMovekey;
+	}
+
+	/**
+	 * Compute the index of the position from the view of the user to move
+	 * @param board    4x4 board
+	 * @param userType UserType to move
+	 * @return         Index from 0 to POSITION_COUNT - 1
+	 */
+	public static int getPositionIndex(Board board, IUserType userType) {
+		if (!isSupported(board)) {
+			throw new IllegalArgumentException();
+		}
+		int positionIndex = 0;
+		for (int movekey = 1; movekey <= CELL_COUNT; movekey++) {
+			IUserType cellUserType = board.getUserTypeAt(movekey);
+			if (cellUserType == null) {
+				continue;
+			}
+			if (cellUserType == userType) {
+				positionIndex += POWERS_OF_THREE[movekey - 1];
+			} else {
+				positionIndex += 2 * POWERS_OF_THREE[movekey - 1];
+			}
+		}
+		return positionIndex;
+	}
+
+	private int getValue(int positionIndex) {
+		return unpackValue(this.values.get(positionIndex >>> 2), positionIndex);
+	}
+
+	static int unpackValue(byte packed, int positionIndex) {
+		return (packed >>> ((positionIndex & 3) << 1)) & 3;
+	}
+
+	/**
+	 * Tell if the value of the opponent is worse for the opponent than the best one so far
+	 */
+	private static boolean isWorseForOpponent(int bestValue, int value) {
+		if (value == UNSOLVED) {
+			return false;
+		} else if (bestValue == UNSOLVED) {
+			return true;
+		} else {
+			return value < bestValue;
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package com.tictactoe.agent;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.tictactoe.util.BoardGeometry;
+
+/**
+ * Offline retrograde solver writing the file of Tablebase4x4
+ * Positions are solved by the number of stones from the full board down to the empty board,
+ * so every position after a move is solved before the position itself
+ * Positions of the same number of stones don't depend on each other, so they are solved in parallel chunks
+ * Usage: Tablebase4x4Solver [outputFile] [threads]
+ */
+public class Tablebase4x4Solver {
+	// Multiple of 4 so that no two chunks write the same byte of the packed values
+	private static final int CHUNK_POSITIONS = 1 << 16;
+
+	private static final int[] LINE_MASKS = createLineMasks();
+
+	public static void main(String args[]) throws IOException {
+		String outputFile = args.length > 0 ? args[0] : Tablebase4x4.DEFAULT_FILE_NAME;
+		int threadCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		long start = System.nanoTime();
+		byte[] values = solve(threadCount);
+		System.out.println(String.format("Solved %,d positions in %,.1f s with %d threads, empty board is %s",
+				Tablebase4x4.POSITION_COUNT, (System.nanoTime() - start) / 1e9, threadCount, getValueName(Tablebase4x4.unpackValue(values[0], 0))));
+		OutputStream out = new FileOutputStream(outputFile);
+		try {
+			out.write(values);
+		} finally {
+			out.close();
+		}
+		System.out.println("Wrote " + values.length + " bytes to " + outputFile);
+	}
+
+	/**
+	 * Solve every position of the 4x4 board
+	 * @param threadCount  Number of threads solving the positions of the same number of stones
+	 * @return             Values packed as in the file of Tablebase4x4
+	 */
+	public static byte[] solve(int threadCount) {
+		if (threadCount <= 0) {
+			throw new IllegalArgumentException();
+		}
+		final byte[] values = new byte[Tablebase4x4.FILE_BYTES];
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			for (int stoneCount = Tablebase4x4.CELL_COUNT; stoneCount >= 0; stoneCount--) {
+				final int level = stoneCount;
+				List<Future<Void>> futures = new ArrayList<Future<Void>>();
+				for (int chunkStart = 0; chunkStart < Tablebase4x4.POSITION_COUNT; chunkStart += CHUNK_POSITIONS) {
+					final int from = chunkStart;
+					final int to = Math.min(chunkStart + CHUNK_POSITIONS, Tablebase4x4.POSITION_COUNT);
+					futures.add(executor.submit(new Callable<Void>() {
+						@Override
+						public Void call() {
+							solveChunk(values, level, from, to);
+							return null;
+						}
+					}));
+				}
+				// Waiting for the level also makes its values visible to the threads solving the next one
+				for (Future<Void> future : futures) {
+					future.get();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+		return values;
+	}
+
+	/**
+	 * Solve the positions of stoneCount stones in the index range
+	 * The user to move has moved stoneCount / 2 times and the opponent the rest, other positions are skipped
+	 * @param values      Packed values, solved for the positions of more stones
+	 * @param stoneCount  Number of stones of the positions to solve
+	 * @param from        First index of the range, a multiple of 4
+	 * @param to          Index after the range
+	 */
+	private static void solveChunk(byte[] values, int stoneCount, int from, int to) {
+		int moverCount = stoneCount / 2;
+		int opponentCount = stoneCount - moverCount;
+		int[] digits = new int[Tablebase4x4.CELL_COUNT];
+		int moverMask = 0; // Bit (movekey - 1) set for the stones of the user to move
+		int opponentMask = 0;
+		int remainder = from;
+		for (int cell = 0; cell < digits.length; cell++) {
+			digits[cell] = remainder % 3;
+			if (digits[cell] == 1) {
+				moverMask |= 1 << cell;
+			} else if (digits[cell] == 2) {
+				opponentMask |= 1 << cell;
+			}
+			remainder /= 3;
+		}
+		for (int positionIndex = from; positionIndex < to; positionIndex++) {
+			if (Integer.bitCount(moverMask) == moverCount && Integer.bitCount(opponentMask) == opponentCount) {
+				int value = solvePosition(values, moverMask, opponentMask);
+				values[positionIndex >>> 2] |= value << ((positionIndex & 3) << 1);
+			}
+			// Count up the base-3 digits to the next index
+			for (int cell = 0; cell < digits.length; cell++) {
+				if (digits[cell] == 0) {
+					digits[cell] = 1;
+					moverMask |= 1 << cell;
+					break;
+				} else if (digits[cell] == 1) {
+					digits[cell] = 2;
+					moverMask &= ~(1 << cell);
+					opponentMask |= 1 << cell;
+					break;
+				} else {
+					digits[cell] = 0;
+					opponentMask &= ~(1 << cell);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Solve the position from the values of the positions after each move
+	 * @return  Value for the user to move
+	 */
+	private static int solvePosition(byte[] values, int moverMask, int opponentMask) {
+		if (hasLine(opponentMask)) { // Opponent has won by the last move
+			return Tablebase4x4.LOSS;
+		} else if (hasLine(moverMask)) { // Game would have ended before the last move
+			return Tablebase4x4.UNSOLVED;
+		}
+		int freeMask = ~(moverMask | opponentMask) & ((1 << Tablebase4x4.CELL_COUNT) - 1);
+		if (freeMask == 0) {
+			return Tablebase4x4.DRAW;
+		}
+		// After the move the users swap their digits and the stone moved becomes an opponent stone
+		int swappedIndex = 0;
+		for (int cell = 0; cell < Tablebase4x4.CELL_COUNT; cell++) {
+			if ((moverMask & (1 << cell)) != 0) {
+				swappedIndex += 2 * Tablebase4x4.POWERS_OF_THREE[cell];
+			} else if ((opponentMask & (1 << cell)) != 0) {
+				swappedIndex += Tablebase4x4.POWERS_OF_THREE[cell];
+			}
+		}
+		int value = Tablebase4x4.LOSS;
+		for (int cell = 0; cell < Tablebase4x4.CELL_COUNT; cell++) {
+			if ((freeMask & (1 << cell)) == 0) {
+				continue;
+			}
+			int nextIndex = swappedIndex + 2 * Tablebase4x4.POWERS_OF_THREE[cell];
+			int nextValue = Tablebase4x4.unpackValue(values[nextIndex >>> 2], nextIndex);
+			if (nextValue == Tablebase4x4.LOSS) {
+				return Tablebase4x4.WIN;
+			} else if (nextValue == Tablebase4x4.DRAW) {
+				value = Tablebase4x4.DRAW;
+			}
+		}
+		return value;
+	}
+
+	private static boolean hasLine(int mask) {
+		for (int lineMask : LINE_MASKS) {
+			if ((mask & lineMask) == lineMask) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int[] createLineMasks() {
+		BoardGeometry geometry = BoardGeometry.getInstance(Tablebase4x4.BOARD_SIZE);
+		int[] lineMasks = new int[geometry.getLineCount()];
+		for (int lineId = 0; lineId < lineMasks.length; lineId++) {
+			for (int movekey : geometry.getLine(lineId)) {
+				lineMasks[lineId] |= 1 << (movekey - 1);
+			}
+		}
+		return lineMasks;
+	}
+
+	private static String getValueName(int value) {
+		if (value == Tablebase4x4.WIN) {
+			return "a win";
+		} else if (value == Tablebase4x4.DRAW) {
+			return "a draw";
+		} else if (value == Tablebase4x4.LOSS) {
+			return "a loss";
+		} else {
+			return "unsolved";
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.tictactoe.agent;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+
+/**
+ * Agent playing the optimal move of the 4x4 board looked up in Tablebase4x4
+ * Other boards, or every board if the tablebase file can't be opened, are searched by AlphaBetaAgent
+ */
+public class TablebaseAgent extends AbstractAgent {
+	// System property of the tablebase file, DEFAULT_FILE_NAME in the working directory if not set
+	public static final String FILE_PROPERTY = "tictactoe.tablebase4x4";
+
+	private final AlphaBetaAgent alphaBetaAgent = new AlphaBetaAgent();
+	private final Tablebase4x4 tablebase;
+	
+	TablebaseAgent() {
+		this(new File(System.getProperty(FILE_PROPERTY, Tablebase4x4.DEFAULT_FILE_NAME)));
+	}
+	
+	/**
+	 * Create an agent reading the tablebase file written by Tablebase4x4Solver
+	 * @param file Tablebase file, which is searched instead if it can't be opened
+	 */
+	TablebaseAgent(File file) {
+		Tablebase4x4 tablebase = null;
+		try {
+			tablebase = Tablebase4x4.open(file);
+		} catch (IOException e) {
+			System.err.println("Failed to open " + file + ", searching 4x4 boards instead: " + e);
+		}
+		this.tablebase = tablebase;
+	}
+	
+	@Override
+	public int selectNextMove(Board board) {
+		return selectNextMove(board, Game.getAgentUserType());
+	}
+	
+	@Override
+	public int selectNextMove(Board board, long deadlineNanos) {
+		if (!isLookedUp(board)) {
+			return this.alphaBetaAgent.selectNextMove(board, Game.getAgentUserType(), deadlineNanos);
+		}
+		return selectNextMove(board, Game.getAgentUserType());
+	}
+	
+	/**
+	 * Look up the optimal move of userType
+	 * @param board    Current state of the board
+	 * @param userType UserType to move
+	 * @return         Movekey decided
+	 */
+	public int selectNextMove(Board board, IUserType userType) {
+		if (!isLookedUp(board)) {
+			return this.alphaBetaAgent.selectNextMove(board, userType);
+		}
+		int movekey = this.tablebase.getBestMovekey(board, userType);
+		if (movekey == 0) { // Board is full
+			throw new IllegalStateException();
+		}
+		return movekey;
+	}
+	
+	public boolean hasTablebase() {
+		return this.tablebase != null;
+	}
+	
+	private boolean isLookedUp(Board board) {
+		if (this.tablebase != null && Tablebase4x4.isSupported(board)) {
+			return true;
+		} else {
+			return false;
+		}
+	}
+}
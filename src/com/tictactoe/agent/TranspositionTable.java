@@ -0,0 +1,241 @@
+package com.tictactoe.agent;
+
+/**
+ * Fixed capacity table of search results keyed by the hash of the position
+ * Entries are kept in primitive arrays allocated once, so the memory stays the same however long it's used
+ * Note: Not thread safe, every search thread needs its own table
+ */
+public class TranspositionTable implements ITranspositionTable {
+	public enum ReplacementPolicy {
+		DEPTH_PREFERRED, // Buckets of two entries, one kept for the deepest result and one always replaced
+		ALWAYS_REPLACE // One entry per bucket replaced by every new result
+	};
+
+	// Bound types of the stored value
+	public static final int EXACT = 1;
+	public static final int LOWER_BOUND = 2; // Search failed high, the value is at least the stored one
+	public static final int UPPER_BOUND = 3; // Search failed low, the value is at most the stored one
+	private static final int EMPTY = 0;
+
+	// Bytes per entry: key, value, best movekey, depth and bound
+	public static final int ENTRY_BYTES = 8 + 4 + 4 + 2 + 1;
+
+	// Layout of a packed result: value in the lower 32 bits, then the bound, the depth and the best movekey
+	private static final int BOUND_SHIFT = 32;
+	private static final int DEPTH_SHIFT = 34;
+	private static final int BEST_MOVEKEY_SHIFT = 46;
+	static final int MAX_PACKED_DEPTH = (1 << 12) - 1; // Deeper results are packed as searched to this depth
+	static final int MAX_PACKED_MOVEKEY = (1 << 18) - 1; // Covers every cell of boards not stored sparsely
+
+	private final ReplacementPolicy replacementPolicy;
+	private final int bucketSize;
+	private final int bucketMask;
+	private final long[] keys;
+	private final int[] values;
+	private final int[] bestMovekeys;
+	private final short[] depths;
+	private final byte[] bounds;
+
+	private long probeCount;
+	private long hitCount;
+	private long storeCount;
+	private long replaceCount; // Stores overwriting the entry of another position
+
+	/**
+	 * Create a table of at most capacity entries
+	 * @param capacity           Maximum number of entries, rounded down to a power of 2
+	 * @param replacementPolicy  Which entry a new result replaces
+	 */
+	public TranspositionTable(int capacity, ReplacementPolicy replacementPolicy) {
+		if (capacity < 2 || replacementPolicy == null) {
+			throw new IllegalArgumentException();
+		}
+		int entryCount = Integer.highestOneBit(capacity);
+		this.replacementPolicy = replacementPolicy;
+		if (replacementPolicy == ReplacementPolicy.DEPTH_PREFERRED) {
+			this.bucketSize = 2;
+		} else {
+			this.bucketSize = 1;
+		}
+		this.bucketMask = entryCount / this.bucketSize - 1;
+		this.keys = new long[entryCount];
+		this.values = new int[entryCount];
+		this.bestMovekeys = new int[entryCount];
+		this.depths = new short[entryCount];
+		this.bounds = new byte[entryCount];
+	}
+
+	/**
+	 * Create a table using at most the memory limit
+	 * @param maxBytes           Memory limit of the entries in bytes
+	 * @param replacementPolicy  Which entry a new result replaces
+	 * @return                   Table of as many entries as fit in the limit
+	 */
+	public static TranspositionTable createWithMemoryLimit(long maxBytes, ReplacementPolicy replacementPolicy) {
+		long capacity = Math.min(maxBytes / ENTRY_BYTES, Integer.MAX_VALUE);
+		return new TranspositionTable((int) capacity, replacementPolicy);
+	}
+
+	/**
+	 * Find the entry of the position
+	 * @param key  Hash of the position
+	 * @return     Index of the entry to read with the getters, -1 if the position isn't stored
+	 */
+	public int find(long key) {
+		this.probeCount++;
+		int first = getBucketIndex(key);
+		for (int entry = first; entry < first + this.bucketSize; entry++) {
+			if (this.bounds[entry] != EMPTY && this.keys[entry] == key) {
+				this.hitCount++;
+				return entry;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public long probe(long key) {
+		int entry = find(key);
+		if (entry < 0) {
+			return 0;
+		}
+		return pack(this.values[entry], this.bounds[entry], this.depths[entry], this.bestMovekeys[entry]);
+	}
+
+	@Override
+	public void store(long key, int value, int bound, int depth, int bestMovekey) {
+		if (bound != EXACT && bound != LOWER_BOUND && bound != UPPER_BOUND) {
+			throw new IllegalArgumentException();
+		}
+		int entry = getBucketIndex(key);
+		if (this.replacementPolicy == ReplacementPolicy.DEPTH_PREFERRED) {
+			// Update the entry of the same position if any, else keep the deeper result in the first entry
+			int secondEntry = entry + 1;
+			if (this.bounds[secondEntry] != EMPTY && this.keys[secondEntry] == key) {
+				entry = secondEntry;
+			} else if (this.bounds[entry] != EMPTY && this.keys[entry] != key && depth < this.depths[entry]) {
+				entry = secondEntry;
+			}
+		}
+		this.storeCount++;
+		if (this.bounds[entry] != EMPTY && this.keys[entry] != key) {
+			this.replaceCount++;
+		}
+		this.keys[entry] = key;
+		this.values[entry] = value;
+		this.bounds[entry] = (byte) bound;
+		this.depths[entry] = (short) Math.min(depth, Short.MAX_VALUE);
+		this.bestMovekeys[entry] = bestMovekey;
+	}
+
+	public int getValue(int entry) {
+		return this.values[entry];
+	}
+
+	public int getBound(int entry) {
+		return this.bounds[entry];
+	}
+
+	public int getDepth(int entry) {
+		return this.depths[entry];
+	}
+
+	public int getBestMovekey(int entry) {
+		return this.bestMovekeys[entry];
+	}
+
+	public ReplacementPolicy getReplacementPolicy() {
+		return this.replacementPolicy;
+	}
+
+	public int getCapacity() {
+		return this.keys.length;
+	}
+
+	public long getProbeCount() {
+		return this.probeCount;
+	}
+
+	public long getHitCount() {
+		return this.hitCount;
+	}
+
+	public long getStoreCount() {
+		return this.storeCount;
+	}
+
+	public long getReplaceCount() {
+		return this.replaceCount;
+	}
+
+	/**
+	 * Get the ratio of the probes finding the position
+	 * @return  Hit rate from 0 to 1, 0 if never probed
+	 */
+	public double getHitRate() {
+		if (this.probeCount == 0) {
+			return 0;
+		} else {
+			return (double) this.hitCount / this.probeCount;
+		}
+	}
+
+	public void resetStatistics() {
+		this.probeCount = 0;
+		this.hitCount = 0;
+		this.storeCount = 0;
+		this.replaceCount = 0;
+	}
+
+	@Override
+	public void clear() {
+		for (int entry = 0; entry < this.bounds.length; entry++) {
+			this.bounds[entry] = EMPTY;
+		}
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return false;
+	}
+
+	/**
+	 * Pack a search result into a long, which is never 0
+	 * @param value        Value found by the search
+	 * @param bound        EXACT, LOWER_BOUND or UPPER_BOUND
+	 * @param depth        Number of plies searched, packed as at most MAX_PACKED_DEPTH
+	 * @param bestMovekey  Best movekey found up to MAX_PACKED_MOVEKEY, 0 if unknown
+	 * @return             Packed result
+	 */
+	public static long pack(int value, int bound, int depth, int bestMovekey) {
+		if (bound != EXACT && bound != LOWER_BOUND && bound != UPPER_BOUND) {
+			throw new IllegalArgumentException();
+		}
+		if (bestMovekey < 0 || bestMovekey > MAX_PACKED_MOVEKEY) {
+			throw new IllegalArgumentException();
+		}
+		return (value & 0xFFFFFFFFL) | ((long) bound << BOUND_SHIFT) | ((long) Math.min(depth, MAX_PACKED_DEPTH) << DEPTH_SHIFT)
+				| ((long) bestMovekey << BEST_MOVEKEY_SHIFT);
+	}
+
+	public static int unpackValue(long result) {
+		return (int) result;
+	}
+
+	public static int unpackBound(long result) {
+		return (int) (result >>> BOUND_SHIFT) & 0x3;
+	}
+
+	public static int unpackDepth(long result) {
+		return (int) (result >>> DEPTH_SHIFT) & MAX_PACKED_DEPTH;
+	}
+
+	public static int unpackBestMovekey(long result) {
+		return (int) (result >>> BEST_MOVEKEY_SHIFT) & MAX_PACKED_MOVEKEY;
+	}
+
+	private int getBucketIndex(long key) {
+		// Zobrist keys are uniformly random, so the lower bits are enough to spread the positions
+		return ((int) (key ^ (key >>> 32)) & this.bucketMask) * this.bucketSize;
+	}
+}
@@ -0,0 +1,571 @@
+package com.tictactoe.analysis;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+
+/**
+ * Solver telling if a user can force a win from a position by proof-number search
+ * The tree is grown at the most-proving leaf until the root is proven (forced win) or disproven (no forced win)
+ * Moves are searched only near the stones, and a user facing an immediate win of the opponent only blocks it,
+ * so threat sequences on large boards are proven without searching the whole board
+ * Solved positions are remembered by their Zobrist key, so positions reached by other move orders aren't solved again
+ * Note: Moves farther than the candidate distance from every stone aren't searched,
+ * set the distance to the board size for an exact result on small boards
+ * Note: Not thread safe, every thread needs its own solver
+ */
+public class ProofNumberSolver {
+	public enum Result {
+		PROVEN, // Attacker can force a win
+		DISPROVEN, // Defender can avoid losing, by a draw or a win
+		UNKNOWN // Node budget or node limit has run out before solving
+	};
+	
+	public enum SearchMode {
+		FULL, // Attacker searches every candidate move
+		THREATS // Attacker searches only moves toward a line, DISPROVEN then means no win by a sequence of threats
+	};
+	
+	/**
+	 * Listener of the progress of a solve
+	 */
+	public interface IProgressListener {
+		/**
+		 * Called every progress interval of expanded nodes
+		 * @param nodeCount            Number of nodes created so far
+		 * @param liveNodeCount        Number of nodes in the tree after removing the solved subtrees
+		 * @param rootProofNumber      Proof number of the root
+		 * @param rootDisproofNumber   Disproof number of the root
+		 */
+		void onProgress(long nodeCount, int liveNodeCount, int rootProofNumber, int rootDisproofNumber);
+	}
+	
+	public static final long UNLIMITED_NODES = 0;
+	public static final long DEFAULT_NODE_BUDGET = 10000000;
+	public static final int DEFAULT_MAX_LIVE_NODES = 4000000;
+	public static final int DEFAULT_PROGRESS_INTERVAL = 100000;
+	public static final int DEFAULT_CANDIDATE_DISTANCE = 2;
+	
+	private static final int INFINITY = Integer.MAX_VALUE / 2; // Proof and disproof numbers of solved nodes
+	private static final long SECOND_TO_MOVE_KEY = 0x6A09E667F3BCC909L; // XORed to the key when the second user is to move
+	
+	// Directions to count consecutive stones in: horizontal, vertical and both diagonals
+	private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+	
+	private long nodeBudget = DEFAULT_NODE_BUDGET;
+	private int maxLiveNodes = DEFAULT_MAX_LIVE_NODES;
+	private int candidateDistance = DEFAULT_CANDIDATE_DISTANCE;
+	private SearchMode searchMode = SearchMode.FULL;
+	private IProgressListener progressListener;
+	private int progressInterval = DEFAULT_PROGRESS_INTERVAL;
+	
+	// State of the solve in progress
+	private Board board;
+	private IUserType attacker;
+	private IUserType toMove; // UserType to move at the root
+	private int rows;
+	private int cols;
+	private Node root;
+	private long nodeCount;
+	private int liveNodeCount;
+	private long expandedCount;
+	private long elapsedNanos;
+	private boolean[] candidateMarks; // Cells near the stones indexed by movekey - 1
+	private int[] candidates;
+	private int[] threats;
+	private Map<Long, Boolean> solvedPositions = new HashMap<Long, Boolean>(); // Whether each solved position is proven
+	
+	/**
+	 * Node of the proof tree, the position after the move from the parent
+	 */
+	private static final class Node {
+		private final int movekey;
+		private int proofNumber = 1;
+		private int disproofNumber = 1;
+		private Node[] children; // null until expanded and after solved
+		
+		private Node(int movekey) {
+			this.movekey = movekey;
+		}
+		
+		private boolean isSolved() {
+			if (this.proofNumber == 0 || this.disproofNumber == 0) {
+				return true;
+			} else {
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * Tell if userType to move can force a win
+	 * @param board    Position to solve, which is restored before returning
+	 * @param userType UserType to move, who is the attacker
+	 * @return         PROVEN, DISPROVEN or UNKNOWN if the budget has run out
+	 */
+	public Result solve(Board board, IUserType userType) {
+		return solve(board, userType, userType);
+	}
+	
+	/**
+	 * Tell if the attacker can force a win from the position
+	 * Note: The game must not be over on the board
+	 * @param board    Position to solve, which is restored before returning
+	 * @param attacker UserType to prove the win of
+	 * @param toMove   UserType to move
+	 * @return         PROVEN, DISPROVEN or UNKNOWN if the budget has run out
+	 */
+	public Result solve(Board board, IUserType attacker, IUserType toMove) {
+		if (board.isSparse()) { // Candidates are looked up in every cell
+			throw new IllegalArgumentException();
+		}
+		long start = System.nanoTime();
+		this.board = board;
+		this.attacker = attacker;
+		this.toMove = toMove;
+		this.rows = board.getRowCount();
+		this.cols = board.getColumnCount();
+		this.candidateMarks = new boolean[board.getCellCount()];
+		this.candidates = new int[board.getCellCount()];
+		this.threats = new int[board.getCellCount()];
+		this.root = new Node(0);
+		this.nodeCount = 1;
+		this.liveNodeCount = 1;
+		this.expandedCount = 0;
+		this.solvedPositions.clear();
+		Node[] path = new Node[board.getFreeMovekeyCount() + 1];
+		int moveCount = board.getMoveCount();
+		try {
+			while (!this.root.isSolved()) {
+				if ((this.nodeBudget != UNLIMITED_NODES && this.nodeCount >= this.nodeBudget) || this.liveNodeCount >= this.maxLiveNodes) {
+					break;
+				}
+				// Go down to the most-proving leaf applying the moves
+				Node node = this.root;
+				IUserType userType = toMove;
+				int depth = 0;
+				path[0] = node;
+				while (node.children != null) {
+					node = selectChild(node, userType == attacker);
+					this.board.apply(userType, node.movekey);
+					userType = Game.getOpponentUserType(userType);
+					depth++;
+					path[depth] = node;
+				}
+				expand(node, userType);
+				// Update the numbers of the path back to the root taking back the moves
+				for (int i = depth; i >= 0; i--) {
+					if (i < depth) {
+						update(path[i], userType == attacker);
+					}
+					if (path[i].isSolved() && i > 0) {
+						rememberSolved(path[i], userType);
+					}
+					if (path[i].isSolved() && path[i].children != null && i > 0) {
+						// Solved subtree isn't needed anymore, only the root keeps the children for the best move
+						this.liveNodeCount -= countNodes(path[i].children);
+						path[i].children = null;
+					}
+					if (i > 0) {
+						this.board.undo();
+						userType = Game.getOpponentUserType(userType);
+					}
+				}
+				this.expandedCount++;
+				if (this.progressListener != null && this.expandedCount % this.progressInterval == 0) {
+					this.progressListener.onProgress(this.nodeCount, this.liveNodeCount, this.root.proofNumber, this.root.disproofNumber);
+				}
+			}
+		} finally {
+			while (board.getMoveCount() > moveCount) { // Restore the board if a listener has thrown
+				board.undo();
+			}
+			this.elapsedNanos = System.nanoTime() - start;
+			this.board = null;
+		}
+		if (this.root.proofNumber == 0) {
+			return Result.PROVEN;
+		} else if (this.root.disproofNumber == 0) {
+			return Result.DISPROVEN;
+		} else {
+			return Result.UNKNOWN;
+		}
+	}
+	
+	/**
+	 * Get the move of the user to move at the root achieving the result of the last solve
+	 * @return  Winning move of the attacker if proven with the attacker to move,
+	 *          refuting move of the defender if disproven with the defender to move, otherwise 0
+	 */
+	public int getBestMovekey() {
+		if (this.root == null || this.root.children == null) {
+			return 0;
+		}
+		boolean attackerMove = this.toMove == this.attacker;
+		for (Node child : this.root.children) {
+			if (attackerMove && this.root.proofNumber == 0 && child.proofNumber == 0) {
+				return child.movekey;
+			} else if (!attackerMove && this.root.disproofNumber == 0 && child.disproofNumber == 0) {
+				return child.movekey;
+			}
+		}
+		return 0;
+	}
+	
+	/**
+	 * Create the children of the leaf or solve it if the game is decided within a move
+	 * @param node      Leaf to expand
+	 * @param userType  UserType to move at the leaf
+	 */
+	private void expand(Node node, IUserType userType) {
+		Boolean proven = this.solvedPositions.get(getPositionKey(userType));
+		if (proven != null) {
+			setSolved(node, proven.booleanValue());
+			return;
+		}
+		IUserType opponent = Game.getOpponentUserType(userType);
+		int candidateCount = collectCandidates();
+		if (candidateCount == 0) { // Board is full, a draw is a failure of the attacker
+			setSolved(node, false);
+			return;
+		}
+		int threatCount = 0;
+		for (int i = 0; i < candidateCount; i++) {
+			int movekey = this.candidates[i];
+			if (makesLine(userType, movekey)) {
+				// Winning at once decides the node, keep the move to report it at the root
+				Node child = new Node(movekey);
+				setSolved(child, userType == this.attacker);
+				node.children = new Node[] {child};
+				this.nodeCount++;
+				this.liveNodeCount++;
+				setSolved(node, userType == this.attacker);
+				return;
+			}
+			if (makesLine(opponent, movekey)) {
+				this.threats[threatCount] = movekey;
+				threatCount++;
+			}
+		}
+		if (threatCount >= 2) { // Only one of the immediate wins of the opponent can be blocked
+			setSolved(node, opponent == this.attacker);
+			return;
+		}
+		int[] movekeys = this.candidates;
+		int childCount = candidateCount;
+		if (threatCount == 1) { // Forced to block
+			movekeys = this.threats;
+			childCount = 1;
+		} else if (this.searchMode == SearchMode.THREATS && userType == this.attacker) {
+			childCount = 0;
+			for (int i = 0; i < candidateCount; i++) {
+				if (isThreat(userType, this.candidates[i])) {
+					this.candidates[childCount] = this.candidates[i];
+					childCount++;
+				}
+			}
+			if (childCount == 0) { // No threat left to make
+				setSolved(node, false);
+				return;
+			}
+		}
+		node.children = new Node[childCount];
+		for (int i = 0; i < childCount; i++) {
+			node.children[i] = new Node(movekeys[i]);
+		}
+		this.nodeCount += childCount;
+		this.liveNodeCount += childCount;
+		update(node, userType == this.attacker);
+	}
+	
+	/**
+	 * Compute the numbers of the node from its children
+	 * @param node          Expanded node
+	 * @param attackerMove  Whether the attacker is to move at the node (OR node) or the defender (AND node)
+	 */
+	private static void update(Node node, boolean attackerMove) {
+		if (node.children == null) { // Solved already
+			return;
+		}
+		int min = INFINITY;
+		int sum = 0;
+		for (Node child : node.children) {
+			if (attackerMove) {
+				min = Math.min(min, child.proofNumber);
+				sum = Math.min(sum + child.disproofNumber, INFINITY);
+			} else {
+				min = Math.min(min, child.disproofNumber);
+				sum = Math.min(sum + child.proofNumber, INFINITY);
+			}
+		}
+		if (attackerMove) {
+			node.proofNumber = min;
+			node.disproofNumber = sum;
+		} else {
+			node.proofNumber = sum;
+			node.disproofNumber = min;
+		}
+	}
+	
+	/**
+	 * Select the child most likely to solve the node, of the least proof number at OR nodes and disproof number at AND nodes
+	 */
+	private static Node selectChild(Node node, boolean attackerMove) {
+		Node best = null;
+		for (Node child : node.children) {
+			if (best == null) {
+				best = child;
+			} else if (attackerMove && child.proofNumber < best.proofNumber) {
+				best = child;
+			} else if (!attackerMove && child.disproofNumber < best.disproofNumber) {
+				best = child;
+			}
+		}
+		return best;
+	}
+	
+	private static void setSolved(Node node, boolean proven) {
+		if (proven) {
+			node.proofNumber = 0;
+			node.disproofNumber = INFINITY;
+		} else {
+			node.proofNumber = INFINITY;
+			node.disproofNumber = 0;
+		}
+	}
+	
+	/**
+	 * Remember the result of the solved position on the board so that other move orders to it aren't solved again
+	 * Note: The results are forgotten when they outnumber the live node limit to keep the memory bounded
+	 */
+	private void rememberSolved(Node node, IUserType userType) {
+		if (this.solvedPositions.size() >= this.maxLiveNodes) {
+			this.solvedPositions.clear();
+		}
+		if (node.proofNumber == 0) {
+			this.solvedPositions.put(getPositionKey(userType), Boolean.TRUE);
+		} else {
+			this.solvedPositions.put(getPositionKey(userType), Boolean.FALSE);
+		}
+	}
+	
+	private long getPositionKey(IUserType userType) {
+		if (Game.getUserTypeIndex(userType) == 1) {
+			return this.board.getZobristKey() ^ SECOND_TO_MOVE_KEY;
+		} else {
+			return this.board.getZobristKey();
+		}
+	}
+	
+	private static int countNodes(Node[] children) {
+		int count = children.length;
+		for (Node child : children) {
+			if (child.children != null) {
+				count += countNodes(child.children);
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Collect the free cells within the candidate distance of any stone, or the center of an empty board
+	 * @return  Number of candidates in the buffer
+	 */
+	private int collectCandidates() {
+		boolean hasStone = false;
+		for (int i = 0; i < this.rows; i++) {
+			for (int j = 0; j < this.cols; j++) {
+				if (this.board.getUserTypeAt(i, j) == null) {
+					continue;
+				}
+				hasStone = true;
+				for (int x = Math.max(0, i - this.candidateDistance); x <= Math.min(this.rows - 1, i + this.candidateDistance); x++) {
+					for (int y = Math.max(0, j - this.candidateDistance); y <= Math.min(this.cols - 1, j + this.candidateDistance); y++) {
+						this.candidateMarks[x * this.cols + y] = true;
+					}
+				}
+			}
+		}
+		if (!hasStone) {
+			this.candidates[0] = (this.rows / 2) * this.cols + this.cols / 2 + 1;
+			return 1;
+		}
+		int candidateCount = 0;
+		for (int cell = 0; cell < this.candidateMarks.length; cell++) {
+			if (this.candidateMarks[cell]) {
+				this.candidateMarks[cell] = false;
+				if (this.board.isAvailable(cell + 1)) {
+					this.candidates[candidateCount] = cell + 1;
+					candidateCount++;
+				}
+			}
+		}
+		return candidateCount;
+	}
+	
+	/**
+	 * Tell if a move of userType on the free cell would leave at most two moves to complete a line
+	 * Note: Counts any line of winLength cells through the cell without a stone of the opponent and winLength - 2 stones of userType
+	 */
+	private boolean isThreat(IUserType userType, int movekey) {
+		int i = (movekey - 1) / this.cols;
+		int j = (movekey - 1) % this.cols;
+		int winLength = this.board.getWinLength();
+		for (int[] direction : DIRECTIONS) {
+			// Slide a window of winLength cells containing the cell along the direction
+			for (int offset = 0; offset < winLength; offset++) {
+				int startI = i - offset * direction[0];
+				int startJ = j - offset * direction[1];
+				int endI = startI + (winLength - 1) * direction[0];
+				int endJ = startJ + (winLength - 1) * direction[1];
+				if (startI < 0 || startI >= this.rows || startJ < 0 || startJ >= this.cols
+						|| endI < 0 || endI >= this.rows || endJ < 0 || endJ >= this.cols) {
+					continue;
+				}
+				int count = 1; // The move itself
+				boolean blocked = false;
+				for (int k = 0; k < winLength && !blocked; k++) {
+					int x = startI + k * direction[0];
+					int y = startJ + k * direction[1];
+					if (x == i && y == j) {
+						continue;
+					}
+					IUserType cellUserType = this.board.getUserTypeAt(x, y);
+					if (cellUserType == userType) {
+						count++;
+					} else if (cellUserType != null) {
+						blocked = true;
+					}
+				}
+				if (!blocked && count >= winLength - 2) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Tell if a move of userType on the free cell would complete a line
+	 */
+	private boolean makesLine(IUserType userType, int movekey) {
+		int i = (movekey - 1) / this.cols;
+		int j = (movekey - 1) % this.cols;
+		int winLength = this.board.getWinLength();
+		for (int[] direction : DIRECTIONS) {
+			int count = 1 + countConsecutive(userType, i, j, direction[0], direction[1], winLength)
+					+ countConsecutive(userType, i, j, -direction[0], -direction[1], winLength);
+			if (count >= winLength) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private int countConsecutive(IUserType userType, int i, int j, int di, int dj, int winLength) {
+		int count = 0;
+		int x = i + di;
+		int y = j + dj;
+		while (count < winLength - 1 && x >= 0 && x < this.rows && y >= 0 && y < this.cols && this.board.getUserTypeAt(x, y) == userType) {
+			count++;
+			x += di;
+			y += dj;
+		}
+		return count;
+	}
+	
+	/**
+	 * Set the maximum number of nodes created by a solve
+	 * @param nodeBudget Number of nodes, UNLIMITED_NODES not to limit
+	 */
+	public void setNodeBudget(long nodeBudget) {
+		if (nodeBudget < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.nodeBudget = nodeBudget;
+	}
+	
+	public long getNodeBudget() {
+		return this.nodeBudget;
+	}
+	
+	/**
+	 * Set the maximum number of nodes kept in memory at once
+	 * Note: Subtrees are removed as soon as they are solved, so this limits only the unsolved part of the tree
+	 * @param maxLiveNodes Number of nodes
+	 */
+	public void setMaxLiveNodes(int maxLiveNodes) {
+		if (maxLiveNodes <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.maxLiveNodes = maxLiveNodes;
+	}
+	
+	public int getMaxLiveNodes() {
+		return this.maxLiveNodes;
+	}
+	
+	/**
+	 * Set how far from the stones moves are searched
+	 * @param candidateDistance Maximum number of cells from a stone in any direction
+	 */
+	public void setCandidateDistance(int candidateDistance) {
+		if (candidateDistance <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.candidateDistance = candidateDistance;
+	}
+	
+	public int getCandidateDistance() {
+		return this.candidateDistance;
+	}
+	
+	/**
+	 * Set which moves of the attacker are searched
+	 * @param searchMode FULL for every candidate move, THREATS for moves toward a line only
+	 */
+	public void setSearchMode(SearchMode searchMode) {
+		if (searchMode == null) {
+			throw new IllegalArgumentException();
+		}
+		this.searchMode = searchMode;
+	}
+	
+	public SearchMode getSearchMode() {
+		return this.searchMode;
+	}
+	
+	/**
+	 * Set the listener called during the solve
+	 * @param progressListener Listener, null not to report the progress
+	 * @param progressInterval Number of nodes expanded between calls
+	 */
+	public void setProgressListener(IProgressListener progressListener, int progressInterval) {
+		if (progressInterval <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.progressListener = progressListener;
+		this.progressInterval = progressInterval;
+	}
+	
+	/**
+	 * Get the number of nodes created by the last solve
+	 */
+	public long getNodeCount() {
+		return this.nodeCount;
+	}
+	
+	/**
+	 * Get the number of nodes left in the tree after the last solve
+	 */
+	public int getLiveNodeCount() {
+		return this.liveNodeCount;
+	}
+	
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
+	}
+}
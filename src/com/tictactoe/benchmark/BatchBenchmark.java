@@ -0,0 +1,87 @@
+package com.tictactoe.benchmark;
+
+import java.util.Random;
+
+import com.tictactoe.agent.AgentFactory;
+import com.tictactoe.agent.AgentFactory.AgentType;
+import com.tictactoe.agent.MctsAgent;
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+
+/**
+ * Compare the boards per second of MctsAgent deciding the moves of many boards one by one with selectNextMove
+ * and in one call of selectNextMoves, at the playouts of a difficulty
+ * Usage: BatchBenchmark [size] [winLength] [boards] [difficulty] [threads] [rounds]
+ * ex. BatchBenchmark 3 3 2000 5 8 5
+ */
+public class BatchBenchmark {
+	private static final int DEFAULT_SIZE = 3;
+	private static final int DEFAULT_WIN_LENGTH = 3;
+	private static final int DEFAULT_BOARDS = 2000;
+	private static final int DEFAULT_DIFFICULTY = 5;
+	private static final int DEFAULT_ROUNDS = 5;
+	private static final long SEED = 1;
+
+	public static void main(String args[]) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+		int winLength = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WIN_LENGTH;
+		int boardCount = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_BOARDS;
+		int difficulty = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_DIFFICULTY;
+		int threadCount = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+		int rounds = args.length > 5 ? Integer.parseInt(args[5]) : DEFAULT_ROUNDS;
+
+		Random random = new Random(SEED);
+		Board[] boards = new Board[boardCount];
+		for (int i = 0; i < boardCount; i++) {
+			boards[i] = createPosition(size, winLength, random);
+		}
+		MctsAgent agent = (MctsAgent) AgentFactory.createAgent(AgentType.MCTS, threadCount);
+		agent.setIterationBudget(AgentFactory.getDifficultyPlayouts(difficulty));
+		int[] movekeys = new int[boardCount];
+		// Warm up the JIT before measuring
+		selectOneByOne(agent, boards, movekeys);
+		agent.selectNextMoves(boards, movekeys);
+
+		System.out.println(String.format("%dx%d (%d in a row), %,d boards, difficulty %d (%,d playouts), %d threads",
+				size, size, winLength, boardCount, difficulty, agent.getIterationBudget(), threadCount));
+		for (int round = 0; round < rounds; round++) {
+			long startNanos = System.nanoTime();
+			selectOneByOne(agent, boards, movekeys);
+			long loopNanos = System.nanoTime() - startNanos;
+			startNanos = System.nanoTime();
+			agent.selectNextMoves(boards, movekeys);
+			long batchNanos = System.nanoTime() - startNanos;
+			System.out.println(String.format("Round %d: one by one %,.0f boards/s, batch %,.0f boards/s, %.2fx",
+					round + 1, boardCount * 1e9 / loopNanos, boardCount * 1e9 / batchNanos, (double) loopNanos / batchNanos));
+		}
+		agent.shutdown();
+	}
+
+	private static void selectOneByOne(MctsAgent agent, Board[] boards, int[] movekeys) {
+		for (int i = 0; i < boards.length; i++) {
+			movekeys[i] = agent.selectNextMove(boards[i]);
+		}
+	}
+
+	/**
+	 * Play random moves from the empty board, starting over if the game ends or no move is left
+	 */
+	private static Board createPosition(int size, int winLength, Random random) {
+		while (true) {
+			Board board = new Board(size, size, winLength);
+			IUserType userType = Game.getUserUserType();
+			int randomMoves = random.nextInt(size * size - 1);
+			boolean over = false;
+			for (int i = 0; i < randomMoves && !over; i++) {
+				int movekey = board.getRandomFreeMovekey(random);
+				board.put(userType, movekey);
+				over = board.isGameOver(userType, movekey);
+				userType = Game.getOpponentUserType(userType);
+			}
+			if (!over) {
+				return board;
+			}
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.tictactoe.benchmark;
+
+import java.util.Random;
+
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+
+/**
+ * Measure how many random games per second Board can play for each board size
+ * Usage: BoardBenchmark [minSize] [maxSize] [millisPerSize] [winLength]
+ * ex. BoardBenchmark 15 19 2000 5 for five in a row, winLength 0 (default) for a full line
+ */
+public class BoardBenchmark {
+	private static final int DEFAULT_MIN_SIZE = 3;
+	private static final int DEFAULT_MAX_SIZE = 8;
+	private static final long DEFAULT_MILLIS_PER_SIZE = 2000;
+
+	public static void main(String args[]) {
+		int minSize = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MIN_SIZE;
+		int maxSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_SIZE;
+		long millisPerSize = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_MILLIS_PER_SIZE;
+		int winLength = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+		Random random = new Random(0);
+
+		for (int size = minSize; size <= maxSize; size++) {
+			int sizeWinLength = winLength > 0 ? winLength : size;
+			// Warm up before measuring
+			playGames(size, sizeWinLength, millisPerSize / 2, random);
+			long start = System.nanoTime();
+			long games = playGames(size, sizeWinLength, millisPerSize, random);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.println(String.format("%dx%d (%d in a row): %,.0f games/sec", size, size, sizeWinLength, games / seconds));
+		}
+	}
+
+	/**
+	 * Keep playing random games on new boards until the time runs out
+	 * @param size       Size of the board
+	 * @param winLength  Number of consecutive moves to win
+	 * @param millis     Time to keep playing
+	 * @param random     Random source to pick the moves
+	 * @return           Number of games played
+	 */
+	private static long playGames(int size, int winLength, long millis, Random random) {
+		long deadline = System.nanoTime() + millis * 1000000L;
+		long games = 0;
+		while (System.nanoTime() < deadline) {
+			for (int n = 0; n < 100; n++) {
+				playGame(new Board(size, size, winLength), random);
+				games++;
+			}
+		}
+		return games;
+	}
+
+	/**
+	 * Play one game with both users placing at random until the game is over
+	 * @param board     Empty board to play on
+	 * @param random    Random source to pick the moves
+	 */
+	private static void playGame(Board board, Random random) {
+		IUserType userType = Game.getUserUserType();
+		while (board.getFreeMovekeyCount() > 0) {
+			int movekey = board.getRandomFreeMovekey(random);
+			board.put(userType, movekey);
+			if (board.isGameOver(userType, movekey)) {
+				return;
+			}
+			if (userType == Game.getUserUserType()) {
+				userType = Game.getAgentUserType();
+			} else {
+				userType = Game.getUserUserType();
+			}
+		}
+	}
+}
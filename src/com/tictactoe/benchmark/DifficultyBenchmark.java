@@ -0,0 +1,119 @@
+package com.tictactoe.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.tictactoe.agent.AgentFactory;
+import com.tictactoe.agent.AgentFactory.AgentType;
+import com.tictactoe.agent.MctsAgent;
+import com.tictactoe.agent.PerfectPlayAgent;
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+
+/**
+ * Measure the latency of a move and the strength of the agent of each difficulty to plan the CPU for a mix of levels
+ * Agents of every difficulty use one thread, so the latency is also the CPU time of a move
+ * Each difficulty plays against random moves and, on 3x3, against PerfectPlayAgent, taking turns to move first
+ * Usage: DifficultyBenchmark [size] [games]
+ * ex. DifficultyBenchmark 4 20
+ */
+public class DifficultyBenchmark {
+	private static final int DEFAULT_SIZE = 3;
+	private static final int DEFAULT_GAMES = 50;
+	private static final long SEED = 1;
+
+	public static void main(String args[]) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+		int games = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_GAMES;
+
+		Random random = new Random(SEED);
+		PerfectPlayAgent perfectAgent = null;
+		if (size == 3) {
+			perfectAgent = (PerfectPlayAgent) AgentFactory.createAgent(AgentType.PERFECT_PLAY);
+		}
+		// Warm up the JIT before measuring
+		MctsAgent warmUpAgent = (MctsAgent) AgentFactory.createAgent(AgentFactory.MAX_DIFFICULTY);
+		playGames(warmUpAgent, null, size, 2, random, new long[size * size * 2]);
+		warmUpAgent.shutdown();
+		System.out.println(String.format("%dx%d, %d games per opponent", size, size, games));
+		for (int difficulty = AgentFactory.MIN_DIFFICULTY; difficulty <= AgentFactory.MAX_DIFFICULTY; difficulty++) {
+			MctsAgent agent = (MctsAgent) AgentFactory.createAgent(difficulty);
+			long[] moveNanos = new long[(size * size + 1) / 2 * games];
+			int[] randomResults = playGames(agent, null, size, games, random, moveNanos);
+			int moveCount = randomResults[3];
+			StringBuilder line = new StringBuilder(String.format("Difficulty %2d, %,6d playouts: mean %8.3f ms, p50 %8.3f ms, p99 %8.3f ms per move, vs random W/D/L %d/%d/%d",
+					difficulty, AgentFactory.getDifficultyPlayouts(difficulty), getMeanMillis(moveNanos, moveCount),
+					getPercentileMillis(moveNanos, moveCount, 50), getPercentileMillis(moveNanos, moveCount, 99),
+					randomResults[0], randomResults[1], randomResults[2]));
+			if (perfectAgent != null) {
+				int[] perfectResults = playGames(agent, perfectAgent, size, games, random, new long[moveNanos.length]);
+				line.append(String.format(", vs perfect W/D/L %d/%d/%d", perfectResults[0], perfectResults[1], perfectResults[2]));
+			}
+			System.out.println(line);
+			agent.shutdown();
+		}
+	}
+
+	/**
+	 * Play the games taking turns to move first and record the time of every move of the agent
+	 * @param opponent   Opponent agent, null to play at random
+	 * @param moveNanos  Buffer to record the time of each move of the agent in
+	 * @return           Wins, draws and losses of the agent, and the number of moves recorded
+	 */
+	private static int[] playGames(MctsAgent agent, PerfectPlayAgent opponent, int size, int games, Random random, long[] moveNanos) {
+		int[] results = new int[4];
+		for (int game = 0; game < games; game++) {
+			Board board = new Board(size);
+			IUserType agentUserType = game % 2 == 0 ? Game.getUserUserType() : Game.getAgentUserType();
+			IUserType userType = Game.getUserUserType();
+			int result = 1; // Draw unless a move wins
+			while (board.getFreeMovekeyCount() > 0) {
+				int movekey;
+				if (userType == agentUserType) {
+					long startNanos = System.nanoTime();
+					movekey = agent.selectNextMove(board, userType, Long.MAX_VALUE);
+					moveNanos[results[3]] = System.nanoTime() - startNanos;
+					results[3]++;
+				} else if (opponent != null) {
+					movekey = opponent.selectNextMove(board, userType);
+				} else {
+					movekey = board.getRandomFreeMovekey(random);
+				}
+				board.put(userType, movekey);
+				if (board.isGameOver(userType, movekey)) {
+					if (userType == agentUserType) {
+						result = 0;
+					} else {
+						result = 2;
+					}
+					break;
+				}
+				userType = Game.getOpponentUserType(userType);
+			}
+			results[result]++;
+		}
+		return results;
+	}
+
+	private static double getMeanMillis(long[] moveNanos, int moveCount) {
+		long sum = 0;
+		for (int i = 0; i < moveCount; i++) {
+			sum += moveNanos[i];
+		}
+		return sum / 1e6 / Math.max(moveCount, 1);
+	}
+
+	/**
+	 * Get the percentile of the recorded times by the nearest rank
+	 */
+	private static double getPercentileMillis(long[] moveNanos, int moveCount, int percentile) {
+		if (moveCount == 0) {
+			return 0;
+		}
+		long[] sortedNanos = Arrays.copyOf(moveNanos, moveCount);
+		Arrays.sort(sortedNanos);
+		int rank = (int) Math.ceil(percentile / 100.0 * moveCount);
+		return sortedNanos[Math.max(rank, 1) - 1] / 1e6;
+	}
+}
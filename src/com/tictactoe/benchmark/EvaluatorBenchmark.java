@@ -0,0 +1,183 @@
+package com.tictactoe.benchmark;
+
+import java.util.Random;
+
+import com.tictactoe.agent.AgentFactory;
+import com.tictactoe.agent.AgentFactory.AgentType;
+import com.tictactoe.agent.AlphaBetaAgent;
+import com.tictactoe.agent.GreedyAgent;
+import com.tictactoe.agent.PatternEvaluator;
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+
+/**
+ * Measure the positions PatternEvaluator scores per second, scoring every line again and updating only the lines of each move
+ * Then play GreedyAgent against RandomAgent and AlphaBetaAgent searching 3 plies with the evaluator against GreedyAgent
+ * Usage: EvaluatorBenchmark [size] [winLength] [positions] [randomMoves] [games]
+ * ex. EvaluatorBenchmark 19 5 100 40 4
+ */
+public class EvaluatorBenchmark {
+	private static final int DEFAULT_SIZE = 15;
+	private static final int DEFAULT_WIN_LENGTH = 5;
+	private static final int DEFAULT_POSITIONS = 100;
+	private static final int DEFAULT_RANDOM_MOVES = 40;
+	private static final int DEFAULT_GAMES = 4;
+	private static final int SEARCH_DEPTH = 3;
+	private static final long MEASURE_NANOS = 1000000000L; // Each measurement is repeated for at least this long
+	private static final long SEED = 1;
+
+	private static int sink; // Keeps the evaluations from being optimized away
+
+	public static void main(String args[]) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+		int winLength = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WIN_LENGTH;
+		int positions = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_POSITIONS;
+		int randomMoves = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_RANDOM_MOVES;
+		int games = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_GAMES;
+
+		Random random = new Random(SEED);
+		Board[] boards = new Board[positions];
+		for (int i = 0; i < positions; i++) {
+			boards[i] = createPosition(size, winLength, randomMoves, random);
+		}
+		System.out.println(String.format("%dx%d (%d in a row), %d positions of %d random moves", size, size, winLength, positions, randomMoves));
+		// Run each measurement twice and report the second to leave out the JIT compilation
+		measureFull(boards);
+		System.out.println(String.format("Full scoring: %,.0f positions/s", measureFull(boards)));
+		measureIncremental(boards);
+		System.out.println(String.format("Incremental scoring of every move: %,.0f positions/s", measureIncremental(boards)));
+
+		GreedyAgent greedyAgent = (GreedyAgent) AgentFactory.createAgent(AgentType.GREEDY);
+		AlphaBetaAgent searchAgent = (AlphaBetaAgent) AgentFactory.createAgent(AgentType.ALPHA_BETA);
+		searchAgent.setMaxDepth(SEARCH_DEPTH);
+		searchAgent.setEvaluator(new PatternEvaluator());
+		playMatch("Greedy", greedyAgent, "Random", null, size, winLength, games, random);
+		playMatch("Search depth " + SEARCH_DEPTH, searchAgent, "Greedy", greedyAgent, size, winLength, games, random);
+	}
+
+	/**
+	 * Score every position by loading it and scoring all its lines
+	 * @return  Positions scored per second
+	 */
+	private static double measureFull(Board[] boards) {
+		PatternEvaluator evaluator = new PatternEvaluator();
+		long count = 0;
+		long startNanos = System.nanoTime();
+		long elapsedNanos;
+		do {
+			for (Board board : boards) {
+				evaluator.reset(board);
+				sink += evaluator.evaluate(Game.getUserUserType());
+				count++;
+			}
+			elapsedNanos = System.nanoTime() - startNanos;
+		} while (elapsedNanos < MEASURE_NANOS);
+		return count * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * Score the position after every free move of each position by updating the lines through the move
+	 * @return  Positions scored per second
+	 */
+	private static double measureIncremental(Board[] boards) {
+		PatternEvaluator evaluator = new PatternEvaluator();
+		int[] movekeys = new int[boards[0].getCellCount()];
+		long count = 0;
+		long startNanos = System.nanoTime();
+		long elapsedNanos;
+		do {
+			for (Board board : boards) {
+				IUserType userType = getUserTypeToMove(board);
+				evaluator.reset(board);
+				int moveCount = board.getFreeMovekeys(movekeys);
+				for (int i = 0; i < moveCount; i++) {
+					evaluator.apply(userType, movekeys[i]);
+					sink += evaluator.evaluate(userType);
+					evaluator.undo(movekeys[i]);
+				}
+				count += moveCount;
+			}
+			elapsedNanos = System.nanoTime() - startNanos;
+		} while (elapsedNanos < MEASURE_NANOS);
+		return count * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * Play the games taking turns to move first and print the results of the first agent
+	 * Note: Agents are GreedyAgent, AlphaBetaAgent or null to play at random
+	 */
+	private static void playMatch(String firstName, Object firstAgent, String secondName, Object secondAgent,
+			int size, int winLength, int games, Random random) {
+		int wins = 0;
+		int losses = 0;
+		long firstNanos = 0;
+		long firstMoves = 0;
+		for (int game = 0; game < games; game++) {
+			Board board = new Board(size, size, winLength);
+			IUserType firstUserType = game % 2 == 0 ? Game.getUserUserType() : Game.getAgentUserType();
+			IUserType userType = Game.getUserUserType();
+			while (board.getFreeMovekeyCount() > 0) {
+				int movekey;
+				if (userType == firstUserType) {
+					long startNanos = System.nanoTime();
+					movekey = selectNextMove(firstAgent, board, userType, random);
+					firstNanos += System.nanoTime() - startNanos;
+					firstMoves++;
+				} else {
+					movekey = selectNextMove(secondAgent, board, userType, random);
+				}
+				board.put(userType, movekey);
+				if (board.isGameOver(userType, movekey)) {
+					if (userType == firstUserType) {
+						wins++;
+					} else {
+						losses++;
+					}
+					break;
+				}
+				userType = Game.getOpponentUserType(userType);
+			}
+		}
+		System.out.println(String.format("%s vs %s: %d wins, %d draws, %d losses, %.2f ms per move",
+				firstName, secondName, wins, games - wins - losses, losses, firstNanos / 1e6 / Math.max(firstMoves, 1)));
+	}
+
+	private static int selectNextMove(Object agent, Board board, IUserType userType, Random random) {
+		if (agent instanceof GreedyAgent) {
+			return ((GreedyAgent) agent).selectNextMove(board, userType);
+		} else if (agent instanceof AlphaBetaAgent) {
+			return ((AlphaBetaAgent) agent).selectNextMove(board, userType);
+		} else {
+			return board.getRandomFreeMovekey(random);
+		}
+	}
+
+	/**
+	 * Play random moves from the empty board, starting over if the game ends
+	 */
+	private static Board createPosition(int size, int winLength, int randomMoves, Random random) {
+		while (true) {
+			Board board = new Board(size, size, winLength);
+			IUserType userType = Game.getUserUserType();
+			boolean over = false;
+			for (int i = 0; i < randomMoves && !over; i++) {
+				int movekey = board.getRandomFreeMovekey(random);
+				board.put(userType, movekey);
+				over = board.isGameOver(userType, movekey);
+				userType = Game.getOpponentUserType(userType);
+			}
+			if (!over) {
+				return board;
+			}
+		}
+	}
+
+	private static IUserType getUserTypeToMove(Board board) {
+		if (board.getMoveCount() % 2 == 0) {
+			return Game.getUserUserType();
+		} else {
+			return Game.getAgentUserType();
+		}
+	}
+}
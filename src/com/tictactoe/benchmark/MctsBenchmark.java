@@ -0,0 +1,39 @@
+package com.tictactoe.benchmark;
+
+import com.tictactoe.agent.AgentFactory;
+import com.tictactoe.agent.AgentFactory.AgentType;
+import com.tictactoe.agent.MctsAgent;
+import com.tictactoe.core.Board;
+
+/**
+ * Measure the playouts per second per thread of MctsAgent on an empty board to size the hardware
+ * Usage: MctsBenchmark [size] [winLength] [millisPerMove] [moves] [agentType]
+ * ex. MctsBenchmark 9 5 1000 5 TREE_PARALLEL_MCTS
+ */
+public class MctsBenchmark {
+	private static final int DEFAULT_SIZE = 7;
+	private static final int DEFAULT_WIN_LENGTH = 4;
+	private static final long DEFAULT_MILLIS_PER_MOVE = 1000;
+	private static final int DEFAULT_MOVES = 5;
+
+	public static void main(String args[]) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+		int winLength = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WIN_LENGTH;
+		long millisPerMove = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_MILLIS_PER_MOVE;
+		int moves = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_MOVES;
+		AgentType agentType = args.length > 4 ? AgentType.valueOf(args[4]) : AgentType.MCTS;
+
+		MctsAgent agent = (MctsAgent) AgentFactory.createAgent(agentType);
+		agent.setIterationBudget(MctsAgent.UNLIMITED_ITERATIONS);
+		Board board = new Board(size, size, winLength);
+		// Warm up before measuring
+		agent.selectNextMove(board, System.nanoTime() + millisPerMove * 1000000L);
+		for (int i = 0; i < moves; i++) {
+			int movekey = agent.selectNextMove(board, System.nanoTime() + millisPerMove * 1000000L);
+			System.out.println(String.format("%dx%d (%d in a row), %s, %d threads: %,d playouts in %,.0f ms, %,.0f playouts/sec/thread, move %d",
+					size, size, winLength, agent.getParallelization(), agent.getThreadCount(), agent.getPlayoutCount(), agent.getElapsedNanos() / 1e6,
+					agent.getPlayoutsPerSecondPerThread(), movekey));
+		}
+		agent.shutdown();
+	}
+}
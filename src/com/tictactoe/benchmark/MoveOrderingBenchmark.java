@@ -0,0 +1,100 @@
+package com.tictactoe.benchmark;
+
+import java.util.Random;
+
+import com.tictactoe.agent.AgentFactory;
+import com.tictactoe.agent.AgentFactory.AgentType;
+import com.tictactoe.agent.AlphaBetaAgent;
+import com.tictactoe.agent.MoveOrderer;
+import com.tictactoe.agent.TranspositionTable;
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+
+/**
+ * Count the nodes AlphaBetaAgent searches with MoveOrderer and with the natural order of the movekeys
+ * Both orders search the same random positions to the same depth, with and without the transposition table
+ * Usage: MoveOrderingBenchmark [size] [winLength] [depth] [positions] [randomMoves]
+ * ex. MoveOrderingBenchmark 5 4 6 20 4
+ */
+public class MoveOrderingBenchmark {
+	private static final int DEFAULT_SIZE = 4;
+	private static final int DEFAULT_WIN_LENGTH = 4;
+	private static final int DEFAULT_DEPTH = AlphaBetaAgent.UNLIMITED_DEPTH;
+	private static final int DEFAULT_POSITIONS = 20;
+	private static final int DEFAULT_RANDOM_MOVES = 4;
+	private static final long SEED = 1;
+
+	public static void main(String args[]) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+		int winLength = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WIN_LENGTH;
+		int depth = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_DEPTH;
+		int positions = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_POSITIONS;
+		int randomMoves = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_RANDOM_MOVES;
+
+		for (int withTable = 0; withTable < 2; withTable++) {
+			long naturalNodes = countNodes(size, winLength, depth, positions, randomMoves, withTable == 1, false);
+			long orderedNodes = countNodes(size, winLength, depth, positions, randomMoves, withTable == 1, true);
+			System.out.println(String.format("%dx%d (%d in a row), depth %s, %s table: natural %,d nodes, ordered %,d nodes, %.1f%% fewer",
+					size, size, winLength, depth == AlphaBetaAgent.UNLIMITED_DEPTH ? "unlimited" : String.valueOf(depth),
+					withTable == 1 ? "with" : "without", naturalNodes, orderedNodes, 100.0 * (naturalNodes - orderedNodes) / naturalNodes));
+		}
+	}
+
+	/**
+	 * Search the same random positions and sum the nodes
+	 */
+	private static long countNodes(int size, int winLength, int depth, int positions, int randomMoves, boolean withTable, boolean ordered) {
+		AlphaBetaAgent agent = (AlphaBetaAgent) AgentFactory.createAgent(AgentType.ALPHA_BETA);
+		agent.setMaxDepth(depth);
+		if (withTable) {
+			agent.setTranspositionTable(new TranspositionTable(1 << 20, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+		} else {
+			agent.setTranspositionTable(null);
+		}
+		if (ordered) {
+			agent.setMoveOrderer(new MoveOrderer());
+		} else {
+			agent.setMoveOrderer(null);
+		}
+		Random random = new Random(SEED);
+		long nodeCount = 0;
+		for (int i = 0; i < positions; i++) {
+			Board board = createPosition(size, winLength, randomMoves, random);
+			if (withTable) {
+				agent.getTranspositionTable().clear();
+			}
+			agent.selectNextMove(board, getUserTypeToMove(board));
+			nodeCount += agent.getNodeCount();
+		}
+		return nodeCount;
+	}
+
+	/**
+	 * Play random moves from the empty board, starting over if the game ends
+	 */
+	private static Board createPosition(int size, int winLength, int randomMoves, Random random) {
+		while (true) {
+			Board board = new Board(size, size, winLength);
+			IUserType userType = Game.getUserUserType();
+			boolean over = false;
+			for (int i = 0; i < randomMoves && !over; i++) {
+				int movekey = board.getRandomFreeMovekey(random);
+				board.put(userType, movekey);
+				over = board.isGameOver(userType, movekey);
+				userType = Game.getOpponentUserType(userType);
+			}
+			if (!over) {
+				return board;
+			}
+		}
+	}
+
+	private static IUserType getUserTypeToMove(Board board) {
+		if (board.getMoveCount() % 2 == 0) {
+			return Game.getUserUserType();
+		} else {
+			return Game.getAgentUserType();
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.tictactoe.benchmark;
+
+import com.tictactoe.analysis.ProofNumberSolver;
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
+import com.tictactoe.core.Game.IUserType;
+
+/**
+ * Measure the time of ProofNumberSolver to prove the threats of 15x15 five-in-a-row positions
+ * Each position is the cells of the attacker and the defender as {row, column} pairs, the attacker to move
+ * Usage: ProofNumberBenchmark [searchMode] [nodeBudget]
+ * ex. ProofNumberBenchmark FULL 1000000
+ */
+public class ProofNumberBenchmark {
+	private static final int SIZE = 15;
+	private static final int WIN_LENGTH = 5;
+	
+	private static final String[] NAMES = {
+		"Open three",
+		"Double three",
+		"Four-three",
+		"No threat"
+	};
+	private static final int[][][] ATTACKER_CELLS = {
+		{{7, 6}, {7, 7}, {7, 8}},
+		{{7, 5}, {7, 6}, {5, 8}, {6, 8}},
+		{{7, 4}, {7, 5}, {7, 6}, {5, 7}, {6, 7}},
+		{{7, 7}, {3, 11}}
+	};
+	private static final int[][][] DEFENDER_CELLS = {
+		{{6, 6}, {8, 8}, {5, 5}},
+		{{3, 3}, {10, 11}, {11, 3}, {2, 12}},
+		{{7, 3}, {1, 1}, {12, 12}, {1, 13}, {13, 1}},
+		{{7, 8}, {8, 7}}
+	};
+	
+	public static void main(String args[]) {
+		ProofNumberSolver.SearchMode searchMode = args.length > 0 ? ProofNumberSolver.SearchMode.valueOf(args[0]) : ProofNumberSolver.SearchMode.THREATS;
+		long nodeBudget = args.length > 1 ? Long.parseLong(args[1]) : ProofNumberSolver.DEFAULT_NODE_BUDGET;
+		
+		ProofNumberSolver solver = new ProofNumberSolver();
+		solver.setSearchMode(searchMode);
+		solver.setNodeBudget(nodeBudget);
+		IUserType attacker = Game.getAgentUserType();
+		IUserType defender = Game.getUserUserType();
+		for (int i = 0; i < NAMES.length; i++) {
+			Board board = new Board(SIZE, SIZE, WIN_LENGTH);
+			for (int[] cell : ATTACKER_CELLS[i]) {
+				board.put(attacker, cell[0] * SIZE + cell[1] + 1);
+			}
+			for (int[] cell : DEFENDER_CELLS[i]) {
+				board.put(defender, cell[0] * SIZE + cell[1] + 1);
+			}
+			ProofNumberSolver.Result result = solver.solve(board, attacker);
+			int movekey = solver.getBestMovekey();
+			System.out.println(String.format("%s: %s in %,.1f ms, %,d nodes, move %s",
+					NAMES[i], result, solver.getElapsedNanos() / 1e6, solver.getNodeCount(), movekey == 0 ? "none" : String.valueOf(movekey)));
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package com.tictactoe.benchmark;
+
+import com.tictactoe.agent.AgentFactory;
+import com.tictactoe.agent.AgentFactory.AgentType;
+import com.tictactoe.agent.AlphaBetaAgent;
+import com.tictactoe.core.Board;
+
+/**
+ * Measure the time of AlphaBetaAgent to complete a depth from an empty board with 1 to maxThreads threads
+ * Each thread count starts with an empty table, so the times compare the helper threads only
+ * Usage: SearchBenchmark [size] [winLength] [depth] [maxThreads]
+ * ex. SearchBenchmark 5 4 8 4
+ */
+public class SearchBenchmark {
+	private static final int DEFAULT_SIZE = 4;
+	private static final int DEFAULT_WIN_LENGTH = 4;
+	private static final int DEFAULT_DEPTH = 9;
+	private static final long NO_DEADLINE_NANOS = 1000L * 1000000000L; // Far enough for any depth to complete
+
+	public static void main(String args[]) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+		int winLength = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WIN_LENGTH;
+		int depth = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_DEPTH;
+		int maxThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+		for (int threadCount = 1; threadCount <= maxThreads; threadCount++) {
+			AlphaBetaAgent agent = (AlphaBetaAgent) AgentFactory.createAgent(AgentType.ITERATIVE_DEEPENING, threadCount);
+			agent.setMaxDepth(depth);
+			// Warm up before measuring
+			agent.selectNextMove(new Board(size, size, winLength), System.nanoTime() + NO_DEADLINE_NANOS);
+			agent.getTranspositionTable().clear();
+			long start = System.nanoTime();
+			int movekey = agent.selectNextMove(new Board(size, size, winLength), System.nanoTime() + NO_DEADLINE_NANOS);
+			long elapsedNanos = System.nanoTime() - start;
+			System.out.println(String.format("%dx%d (%d in a row), %d threads: depth %d in %,.1f ms, %,d nodes, move %d",
+					size, size, winLength, threadCount, agent.getCompletedDepth(), elapsedNanos / 1e6, agent.getNodeCount(), movekey));
+			agent.shutdown();
+		}
+	}
+}
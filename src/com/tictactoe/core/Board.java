@@ -1,23 +1,99 @@
 package com.tictactoe.core;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import com.tictactoe.core.Game.IUserType;
-import com.tictactoe.util.BoardUtil;
+import com.tictactoe.util.BitboardUtil;
+import com.tictactoe.util.BoardGeometry;
+import com.tictactoe.util.ZobristUtil;
 
-public class Board {
-	private final int size;
-	private IUserType[][] matrix;
+public class Board implements IBoardView {
+	private final int rows;
+	private final int cols;
+	private final int winLength; // Number of consecutive moves in a line to win
+	private IUserType[][] matrix; // Used when the board is too large for bitboards
+	private SparseCellMap sparseCells; // Used when the board is too large for a matrix
+	private long[] bitboards; // Occupancy mask per user indexed by Game.getUserTypeIndex
+	private long[][] lineMasks; // Masks of the winning lines through each cell of the bitboards
+	private final BoardGeometry geometry; // Shared geometry of the board shape, null for sparse boards
 	private BoardIndex boardIndex = null;
+	private int[] movekeyHistory; // Moves put on the board in order to take them back
+	private IUserType[] userTypeHistory;
+	private boolean[] indexedHistory; // Whether each move was recorded in the board index by apply()
+	private int movecount;
+	private int[] freeMovekeys; // Available movekeys in the first freeCount elements, null for sparse boards
+	private int[] freeMovekeyPositions; // Index of each movekey in freeMovekeys indexed by movekey - 1
+	private int freeCount;
+	private final long[][] zobristTable; // Shared random keys of the board size, null for sparse boards
+	private long zobristKey; // Zobrist hash of the current position
+	
+	// Boards of more cells only store the moves made to keep the memory proportional to them
+	private static final int MAX_DENSE_CELLS = 1 << 16;
+	private static final int INITIAL_SPARSE_HISTORY_CAPACITY = 64;
+	
+	// Directions to count consecutive moves in: horizontal, vertical and both diagonals
+	private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
 	
+	/**
+	 * Create a square board where a full horizontal, vertical or diagonal line wins
+	 * @param size  Number of rows and columns
+	 */
 	public Board(int size) {
-		if (size <= 0) { // Board size needs to be non-zero positive integer
+		this(size, size, size);
+	}
+	
+	/**
+	 * Create a board of rows x cols where winLength consecutive moves in any direction win
+	 * ex. Board(15, 15, 5) for five in a row
+	 * @param rows       Number of rows
+	 * @param cols       Number of columns
+	 * @param winLength  Number of consecutive moves to win
+	 */
+	public Board(int rows, int cols, int winLength) {
+		if (rows <= 0 || cols <= 0 || winLength <= 0) { // Board size needs to be non-zero positive integer
 			throw new IllegalArgumentException();
 		}
-		this.size = size;
-		this.matrix = new IUserType[size][size];
+		if ((long) rows * cols > Integer.MAX_VALUE) { // Movekeys need to fit in int
+			throw new IllegalArgumentException();
+		}
+		this.rows = rows;
+		this.cols = cols;
+		this.winLength = winLength;
+		if (BitboardUtil.isBitboardSize(rows, cols)) {
+			this.bitboards = new long[2];
+			this.lineMasks = BitboardUtil.getLineMasks(rows, cols, winLength);
+		} else if (!isSparseShape(rows, cols)) {
+			this.matrix = new IUserType[rows][cols];
+		} else {
+			this.sparseCells = new SparseCellMap();
+		}
+		if (this.sparseCells != null) {
+			this.movekeyHistory = new int[INITIAL_SPARSE_HISTORY_CAPACITY];
+			this.userTypeHistory = new IUserType[INITIAL_SPARSE_HISTORY_CAPACITY];
+			this.indexedHistory = new boolean[INITIAL_SPARSE_HISTORY_CAPACITY];
+			this.zobristTable = null;
+			this.geometry = null;
+		} else {
+			this.movekeyHistory = new int[rows * cols];
+			this.userTypeHistory = new IUserType[rows * cols];
+			this.indexedHistory = new boolean[rows * cols];
+			this.zobristTable = ZobristUtil.getTable(rows, cols);
+			this.geometry = BoardGeometry.getInstance(rows, cols);
+			this.freeMovekeys = new int[rows * cols];
+			this.freeMovekeyPositions = new int[rows * cols];
+			for (int cell = 0; cell < rows * cols; cell++) {
+				this.freeMovekeys[cell] = cell + 1;
+				this.freeMovekeyPositions[cell] = cell;
+			}
+			this.freeCount = rows * cols;
+		}
+		this.zobristKey = ZobristUtil.getShapeKey(rows, cols, winLength);
 	}
 	
 	/**
 	 * Put O or X to specified place on the board
+	 * Note: The move isn't recorded in the board index, use apply() to keep the index in step with the board
 	 */
 	public void put(IUserType userType, int movekey) {
 		// Range check the move key with the board size
@@ -29,10 +105,232 @@ public class Board {
 			System.err.println("Already placed movekey: " + movekey);
 			throw new IllegalArgumentException();
 		}
-		// Compute the array indices from move key
-		int[] indices = BoardUtil.computeIndicesFromMovekey(movekey, getSize());
 		// Put the move on the board
-		this.matrix[indices[0]][indices[1]] = userType;	
+		if (this.bitboards != null) {
+			this.bitboards[Game.getUserTypeIndex(userType)] |= BitboardUtil.getMovekeyBit(movekey);
+		} else if (this.matrix != null) {
+			this.matrix[this.geometry.getRow(movekey)][this.geometry.getColumn(movekey)] = userType;
+		} else {
+			this.sparseCells.put((movekey - 1) / this.cols, (movekey - 1) % this.cols, (byte) (Game.getUserTypeIndex(userType) + 1));
+			if (this.movecount == this.movekeyHistory.length) {
+				this.movekeyHistory = Arrays.copyOf(this.movekeyHistory, this.movecount * 2);
+				this.userTypeHistory = Arrays.copyOf(this.userTypeHistory, this.movecount * 2);
+				this.indexedHistory = Arrays.copyOf(this.indexedHistory, this.movecount * 2);
+			}
+		}
+		if (this.freeMovekeys != null) {
+			removeFreeMovekey(movekey);
+		}
+		this.zobristKey ^= getCellZobristKey(userType, movekey);
+		this.movekeyHistory[this.movecount] = movekey;
+		this.userTypeHistory[this.movecount] = userType;
+		this.indexedHistory[this.movecount] = false;
+		this.movecount++;
+	}
+	
+	/**
+	 * Put the move on the board and record it in the board index so that it can be taken back by undo()
+	 * Note: Intended for searching hypothetical moves in place without copying the board
+	 * @param userType  UserType of the user to make the move
+	 * @param movekey   Movekey to put
+	 */
+	public void apply(IUserType userType, int movekey) {
+		put(userType, movekey);
+		if (this.boardIndex != null) {
+			this.boardIndex.addUserPosition(userType, movekey);
+			this.indexedHistory[this.movecount - 1] = true;
+		}
+	}
+	
+	/**
+	 * Take back the last move put on the board and remove it from the board index if apply() recorded it there
+	 * @return  Movekey of the move taken back
+	 */
+	public int undo() {
+		if (this.movecount == 0) {
+			throw new IllegalStateException();
+		}
+		this.movecount--;
+		int movekey = this.movekeyHistory[this.movecount];
+		IUserType userType = this.userTypeHistory[this.movecount];
+		this.userTypeHistory[this.movecount] = null;
+		if (this.bitboards != null) {
+			this.bitboards[Game.getUserTypeIndex(userType)] &= ~BitboardUtil.getMovekeyBit(movekey);
+		} else if (this.matrix != null) {
+			this.matrix[this.geometry.getRow(movekey)][this.geometry.getColumn(movekey)] = null;
+		} else {
+			this.sparseCells.remove((movekey - 1) / this.cols, (movekey - 1) % this.cols);
+		}
+		if (this.freeMovekeys != null) {
+			addFreeMovekey(movekey);
+		}
+		this.zobristKey ^= getCellZobristKey(userType, movekey);
+		if (this.indexedHistory[this.movecount]) {
+			this.boardIndex.removeUserPosition(userType, movekey);
+		}
+		return movekey;
+	}
+	
+	/**
+	 * Swap the movekey with the last free movekey and shrink the free movekeys by one
+	 */
+	private void removeFreeMovekey(int movekey) {
+		int position = this.freeMovekeyPositions[movekey - 1];
+		int lastMovekey = this.freeMovekeys[this.freeCount - 1];
+		this.freeMovekeys[position] = lastMovekey;
+		this.freeMovekeyPositions[lastMovekey - 1] = position;
+		this.freeCount--;
+		this.freeMovekeys[this.freeCount] = movekey;
+		this.freeMovekeyPositions[movekey - 1] = this.freeCount;
+	}
+	
+	/**
+	 * Swap the movekey with the first taken movekey and grow the free movekeys by one
+	 * Note: The movekey taken back by undo() is already the first taken movekey, so the swap is a no-op
+	 */
+	private void addFreeMovekey(int movekey) {
+		int position = this.freeMovekeyPositions[movekey - 1];
+		int firstTakenMovekey = this.freeMovekeys[this.freeCount];
+		this.freeMovekeys[position] = firstTakenMovekey;
+		this.freeMovekeyPositions[firstTakenMovekey - 1] = position;
+		this.freeMovekeys[this.freeCount] = movekey;
+		this.freeMovekeyPositions[movekey - 1] = this.freeCount;
+		this.freeCount++;
+	}
+	
+	/**
+	 * Get the number of available movekeys
+	 */
+	public int getFreeMovekeyCount() {
+		return getCellCount() - this.movecount;
+	}
+	
+	/**
+	 * Get the available movekey at the index
+	 * Note: The order of the available movekeys changes on every put and undo
+	 * @param index Index from 0 to getFreeMovekeyCount() - 1
+	 * @return      Available movekey at the index
+	 */
+	public int getFreeMovekey(int index) {
+		if (this.freeMovekeys == null) { // Sparse boards don't keep the list of available movekeys
+			throw new IllegalStateException();
+		}
+		if (index < 0 || index >= this.freeCount) {
+			throw new IllegalArgumentException();
+		}
+		return this.freeMovekeys[index];
+	}
+	
+	/**
+	 * Copy the available movekeys to the array to iterate over while moves are applied and taken back
+	 * @param movekeys Array of at least getFreeMovekeyCount() elements to copy the movekeys to
+	 * @return         Number of movekeys copied
+	 */
+	public int getFreeMovekeys(int[] movekeys) {
+		if (this.freeMovekeys == null) { // Sparse boards don't keep the list of available movekeys
+			throw new IllegalStateException();
+		}
+		System.arraycopy(this.freeMovekeys, 0, movekeys, 0, this.freeCount);
+		return this.freeCount;
+	}
+	
+	/**
+	 * Pick one of the available movekeys uniformly at random
+	 * Note: Sparse boards pick random cells until an available one is found, which is fast while the board is mostly empty
+	 * @param random Random source to pick with
+	 * @return       Available movekey
+	 */
+	public int getRandomFreeMovekey(Random random) {
+		if (getFreeMovekeyCount() == 0) { // Board is full
+			throw new IllegalStateException();
+		}
+		if (this.freeMovekeys != null) {
+			return this.freeMovekeys[random.nextInt(this.freeCount)];
+		}
+		while (true) {
+			int movekey = random.nextInt(getCellCount()) + 1;
+			if (isAvailable(movekey)) {
+				return movekey;
+			}
+		}
+	}
+	
+	/**
+	 * Create a copy of the board by putting the same moves in the same order on a new board
+	 * Note: The board index isn't copied, the copy can be searched in another thread
+	 * @return  New board in the same position with the same move history
+	 */
+	public Board getDeepCopy() {
+		Board board = new Board(this.rows, this.cols, this.winLength);
+		for (int i = 0; i < this.movecount; i++) {
+			board.put(this.userTypeHistory[i], this.movekeyHistory[i]);
+		}
+		return board;
+	}
+	
+	/**
+	 * Get the occupancy mask of userType, where the bit of movekey is 1L << (movekey - 1)
+	 * @param userType UserType whose moves to get
+	 * @return         Bitboard of userType's moves
+	 */
+	public long getBitboard(IUserType userType) {
+		if (this.bitboards == null) { // Board is too large for bitboards
+			throw new IllegalStateException();
+		}
+		return this.bitboards[Game.getUserTypeIndex(userType)];
+	}
+	
+	/**
+	 * Get the 64-bit Zobrist hash of the current position
+	 * Note: Boards of the same rows, columns and winLength in the same position have the same key, also across sessions
+	 *       Boards of other shapes have other keys even if they have the same number of cells
+	 * @return  Zobrist key updated on every put and undo
+	 */
+	public long getZobristKey() {
+		return this.zobristKey;
+	}
+	
+	/**
+	 * Get the random key the Zobrist hash is updated with when userType puts on the movekey
+	 * @param userType UserType of the move
+	 * @param movekey  Movekey of the move
+	 * @return         Random key of the move
+	 */
+	public long getCellZobristKey(IUserType userType, int movekey) {
+		if (this.zobristTable != null) {
+			return this.zobristTable[Game.getUserTypeIndex(userType)][movekey - 1];
+		} else {
+			return ZobristUtil.computeKey(Game.getUserTypeIndex(userType), movekey);
+		}
+	}
+	
+	/**
+	 * Tell if boards of rows x cols only store the moves made instead of every cell
+	 */
+	static boolean isSparseShape(int rows, int cols) {
+		if ((long) rows * cols > MAX_DENSE_CELLS) {
+			return true;
+		} else {
+			return false;
+		}
+	}
+	
+	/**
+	 * Tell if the board only stores the moves made instead of every cell
+	 */
+	public boolean isSparse() {
+		if (this.sparseCells != null) {
+			return true;
+		} else {
+			return false;
+		}
+	}
+	
+	/**
+	 * Get the number of moves put on the board
+	 */
+	public int getMoveCount() {
+		return this.movecount;
 	}
 	
 	public BoardIndex getBoardIndex() {
@@ -49,7 +347,7 @@ public class Board {
 	 * @return         if the move key is valid in the board size
 	 */
 	public boolean isValidMovekey(int movekey) {
-		if (movekey < 1 || movekey > getSize()*getSize()) {
+		if (movekey < 1 || movekey > getCellCount()) {
 			return false;
 		} else {
 			return true;
@@ -60,8 +358,14 @@ public class Board {
 	 * Check the availability of the move key position on the board
 	 */
 	public boolean isAvailable(int movekey) {
-		int[] indices = BoardUtil.computeIndicesFromMovekey(movekey, this.size);
-		if (this.matrix[indices[0]][indices[1]] == null) {
+		if (this.bitboards != null) {
+			if (((this.bitboards[0] | this.bitboards[1]) & BitboardUtil.getMovekeyBit(movekey)) == 0) {
+				return true;
+			} else {
+				return false;
+			}
+		}
+		if (getUserTypeAt(movekey) == null) {
 			return true;
 		} else {
 			return false;
@@ -76,82 +380,193 @@ public class Board {
 	 * @return          if the game is over
 	 */
 	public boolean isGameOver(IUserType userType, int prevmove) {
-		// Check game over depending on the place of the move
-		if (prevmove == BoardUtil.getCenterMovekey(getSize())) { // (1) Center point
-			// 1) Check horizontal line
-			if (BoardUtil.getHorizontalCount(getMatrix(), userType, prevmove) == getSize()) {
-				return true;
-			}
-			// 2) Check vertical line
-			if (BoardUtil.getVericalCount(getMatrix(), userType, prevmove) == getSize()) {
-				return true;
-			}
-			// 3) Check Left top to right bottom diagonal line
-			if (BoardUtil.getRightDownDiagonalCount(getMatrix(), userType) == getSize()) {
-				return true;
-			}
-			// 4) Check Left bottom to right top diagonal line
-			if (BoardUtil.getRightUpDiagonalCount(getMatrix(), userType) == getSize()) {
-				return true;
+		if (this.bitboards != null) {
+			// Check if any winning line through the previous move is fully occupied by userType
+			long bitboard = this.bitboards[Game.getUserTypeIndex(userType)];
+			for (long lineMask : this.lineMasks[prevmove - 1]) {
+				if ((bitboard & lineMask) == lineMask) {
+					return true;
+				}
 			}
 			return false;
-		} else if (BoardUtil.isRightDownDiagonalMovekey(prevmove, getSize())) { // (2) Left top to right bottom diagonal line
-			// 1) Check horizontal line
-			if (BoardUtil.getHorizontalCount(getMatrix(), userType, prevmove) == getSize()) {
-				return true;
-			}
-			// 2) Check vertical line
-			if (BoardUtil.getVericalCount(getMatrix(), userType, prevmove) == getSize()) {
-				return true;
-			}
-			// 3) Check Left top to right bottom diagonal line
-			if (BoardUtil.getRightDownDiagonalCount(getMatrix(), userType) == getSize()) {
-				return true;
-			}
+		}
+		if (this.boardIndex != null && isFullLineRule()) {
+			// The index keeps the count of every line up to date with the moves
+			return this.boardIndex.isLineFilled(userType, prevmove);
+		}
+		// Count the consecutive moves outward from the previous move in each direction
+		int i;
+		int j;
+		if (this.geometry != null) {
+			i = this.geometry.getRow(prevmove);
+			j = this.geometry.getColumn(prevmove);
+		} else {
+			i = (prevmove - 1) / this.cols;
+			j = (prevmove - 1) % this.cols;
+		}
+		if (getUserTypeAt(i, j) != userType) {
 			return false;
-		} else if (BoardUtil.isRightUpDiagonalMovekey(prevmove, getSize())) { // (3) Left bottom to right top diagonal line
-			// 1) Check horizontal line
-			if (BoardUtil.getHorizontalCount(getMatrix(), userType, prevmove) == getSize()) {
-				return true;
-			}
-			// 2) Check vertical line
-			if (BoardUtil.getVericalCount(getMatrix(), userType, prevmove) == getSize()) {
+		}
+		for (int[] direction : DIRECTIONS) {
+			int count = 1 + countConsecutive(userType, i, j, direction[0], direction[1])
+					+ countConsecutive(userType, i, j, -direction[0], -direction[1]);
+			if (count >= this.winLength) {
 				return true;
 			}
-			// 3) Check Left bottom to right top diagonal line
-			if (BoardUtil.getRightUpDiagonalCount(getMatrix(), userType) == getSize()) {
-				return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Tell if a move of userType to the available movekey would win without putting it on the board
+	 * Note: Cheaper than apply, isGameOver and undo for ordering the moves of a search
+	 * @param userType  UserType to move
+	 * @param movekey   Available movekey
+	 * @return          if the move would complete a line
+	 */
+	public boolean isWinningMove(IUserType userType, int movekey) {
+		if (this.bitboards != null) {
+			long bitboard = this.bitboards[Game.getUserTypeIndex(userType)] | BitboardUtil.getMovekeyBit(movekey);
+			for (long lineMask : this.lineMasks[movekey - 1]) {
+				if ((bitboard & lineMask) == lineMask) {
+					return true;
+				}
 			}
 			return false;
-		} else { // (4) On the side
-			// 1) Check horizontal line
-			if (BoardUtil.getHorizontalCount(getMatrix(), userType, prevmove) == getSize()) {
-				return true;
-			}
-			// 2) Check vertical line
-			if (BoardUtil.getVericalCount(getMatrix(), userType, prevmove) == getSize()) {
+		}
+		int i;
+		int j;
+		if (this.geometry != null) {
+			i = this.geometry.getRow(movekey);
+			j = this.geometry.getColumn(movekey);
+		} else {
+			i = (movekey - 1) / this.cols;
+			j = (movekey - 1) % this.cols;
+		}
+		for (int[] direction : DIRECTIONS) {
+			int count = 1 + countConsecutive(userType, i, j, direction[0], direction[1])
+					+ countConsecutive(userType, i, j, -direction[0], -direction[1]);
+			if (count >= this.winLength) {
 				return true;
 			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Count the consecutive moves of userType from the next cell of (i, j) toward the direction
+	 * @param userType  UserType to count
+	 * @param i         Index of the row to count from
+	 * @param j         Index of the column to count from
+	 * @param di        Step of the row index
+	 * @param dj        Step of the column index
+	 * @return          Count of consecutive moves up to winLength - 1
+	 */
+	private int countConsecutive(IUserType userType, int i, int j, int di, int dj) {
+		int count = 0;
+		int x = i + di;
+		int y = j + dj;
+		while (count < this.winLength - 1 && x >= 0 && x < this.rows && y >= 0 && y < this.cols && getUserTypeAt(x, y) == userType) {
+			count++;
+			x += di;
+			y += dj;
+		}
+		return count;
+	}
+	
+	/**
+	 * Tell if the board is square and only a full line wins as in the original Tic-Tac-Toe
+	 */
+	public boolean isFullLineRule() {
+		if (this.rows == this.cols && this.winLength == this.rows) {
+			return true;
+		} else {
 			return false;
 		}
 	}
 	
+	/**
+	 * Get the size of the square board
+	 * @return  Number of rows and columns
+	 */
 	public int getSize() {
-		return this.size;
+		if (this.rows != this.cols) { // Board is not square
+			throw new IllegalStateException();
+		}
+		return this.rows;
 	}
 	
+	public int getRowCount() {
+		return this.rows;
+	}
+	
+	public int getColumnCount() {
+		return this.cols;
+	}
+	
+	public int getCellCount() {
+		return this.rows * this.cols;
+	}
+	
+	public int getWinLength() {
+		return this.winLength;
+	}
+	
+	/**
+	 * Get the precomputed geometry of the board shape
+	 * @return  Shared geometry of the board, null for sparse boards too large to precompute
+	 */
+	public BoardGeometry getGeometry() {
+		return this.geometry;
+	}
+	
+	/**
+	 * Get a snapshot of the board state
+	 * Note: Allocates a new matrix of every cell on every call, also for sparse boards, use the IBoardView methods to just look up cells
+	 * @return  Deep copied matrix of the board
+	 */
 	public IUserType[][] getMatrix() {
 		// Deep copy the matrix
-		IUserType[][] matrix = new IUserType[getSize()][getSize()];
-		for (int i = 0; i < getSize(); i++) {
-			for (int j = 0; j < getSize(); j++) {
-				matrix[i][j] = this.matrix[i][j];
+		IUserType[][] matrix = new IUserType[this.rows][this.cols];
+		for (int i = 0; i < this.rows; i++) {
+			for (int j = 0; j < this.cols; j++) {
+				matrix[i][j] = getUserTypeAt(i, j);
 			}
 		}
 		
 		return matrix;
 	}
 	
+	@Override
+	public IUserType getUserTypeAt(int movekey) {
+		if (this.geometry != null) {
+			return getUserTypeAt(this.geometry.getRow(movekey), this.geometry.getColumn(movekey));
+		}
+		return getUserTypeAt((movekey - 1) / this.cols, (movekey - 1) % this.cols);
+	}
+	
+	@Override
+	public IUserType getUserTypeAt(int i, int j) {
+		if (this.bitboards != null) {
+			long bit = BitboardUtil.getMovekeyBit(i * this.cols + j + 1);
+			if ((this.bitboards[Game.getUserTypeIndex(Game.getUserUserType())] & bit) != 0) {
+				return Game.getUserUserType();
+			} else if ((this.bitboards[Game.getUserTypeIndex(Game.getAgentUserType())] & bit) != 0) {
+				return Game.getAgentUserType();
+			} else {
+				return null;
+			}
+		} else if (this.matrix != null) {
+			return this.matrix[i][j];
+		}
+		byte value = this.sparseCells.get(i, j);
+		if (value == 0) {
+			return null;
+		} else {
+			return Game.getUserTypeByIndex(value - 1);
+		}
+	}
+	
 	/** Create a string of board state something like below
 	* X| | |
 	*  |X| |
@@ -159,11 +574,12 @@ public class Board {
 	*/
 	public String getStrBoardState() {
 		StringBuilder strBoardState = new StringBuilder("Board: " + System.getProperty("line.separator"));
-		for (int i = 0; i < getSize(); i++) {
-			for (int j = 0; j < getSize(); j++) {
-				if (matrix[i][j] == Game.getUserUserType()) {
+		for (int i = 0; i < this.rows; i++) {
+			for (int j = 0; j < this.cols; j++) {
+				IUserType userType = getUserTypeAt(i, j);
+				if (userType == Game.getUserUserType()) {
 					strBoardState.append(Game.getUserUserType() + "|");
-				} else if (matrix[i][j] == Game.getAgentUserType()) {
+				} else if (userType == Game.getAgentUserType()) {
 					strBoardState.append(Game.getAgentUserType() + "|");
 				} else {
 					strBoardState.append(" |");
@@ -182,8 +598,8 @@ public class Board {
 	public String getStrMovekeyMatrix() {
 		StringBuilder strMovekeyMatrix = new StringBuilder("Move key: " + System.getProperty("line.separator"));
 		int movekey = 1;
-		for (int i = 0; i < getSize(); i++) {
-			for (int j = 0; j < getSize(); j++) {
+		for (int i = 0; i < this.rows; i++) {
+			for (int j = 0; j < this.cols; j++) {
 				strMovekeyMatrix.append(movekey++ + "|");
 			}
 			strMovekeyMatrix.append(System.getProperty("line.separator"));
@@ -6,22 +6,156 @@ import java.util.List;
 import java.util.Map;
 
 import com.tictactoe.core.Game.IUserType;
+import com.tictactoe.util.BoardGeometry;
 
 public class BoardIndex {
+	private final int boardSize;
+	private final BoardGeometry geometry; // null for the sizes stored sparsely, whose line ids are computed per move
 	private Map<IUserType, List<Integer>> userPositionlistMap = new HashMap<IUserType, List<Integer>>();
-	
-	BoardIndex(Map<IUserType, User> typeUserMap) {
+	// Count of each user's moves on every line indexed by [Game.getUserTypeIndex][line id of BoardGeometry]
+	// Note: Line ids are the rows, the columns and then the two diagonals, also when the geometry isn't built
+	private int[][] lineCounts = new int[2][];
+
+	BoardIndex(Map<IUserType, User> typeUserMap, int boardSize) {
+		this.boardSize = boardSize;
+		if (Board.isSparseShape(boardSize, boardSize)) { // Geometry of every cell would grow with the area of the board
+			this.geometry = null;
+		} else {
+			this.geometry = BoardGeometry.getInstance(boardSize);
+		}
 		for (IUserType userType : typeUserMap.keySet()) {
 			List<Integer> positionList = new ArrayList<Integer>();
 			this.userPositionlistMap.put(userType, positionList);
 		}
+		for (int userTypeIndex = 0; userTypeIndex < 2; userTypeIndex++) {
+			this.lineCounts[userTypeIndex] = new int[2 * boardSize + 2];
+		}
 	}
-	
+
+	/**
+	 * Record the move of userType and update the line counts the move is on
+	 * Note: Needs to be called for every move put on the board to keep the counts in sync
+	 * @param userType UserType of the user who made the move
+	 * @param movekey  Movekey of the move
+	 */
 	public void addUserPosition(IUserType userType, int movekey) {
 		this.userPositionlistMap.get(userType).add(movekey);
+		int[] counts = this.lineCounts[Game.getUserTypeIndex(userType)];
+		for (int lineId : getLineIds(movekey)) {
+			counts[lineId]++;
+		}
 	}
-	
+
+	/**
+	 * Remove the last move of userType and update the line counts the move is on
+	 * @param userType UserType of the user who made the move
+	 * @param movekey  Movekey of the move, which needs to be the last move of userType
+	 */
+	public void removeUserPosition(IUserType userType, int movekey) {
+		List<Integer> positionList = this.userPositionlistMap.get(userType);
+		if (positionList.isEmpty() || positionList.get(positionList.size() - 1) != movekey) {
+			throw new IllegalArgumentException();
+		}
+		positionList.remove(positionList.size() - 1);
+		int[] counts = this.lineCounts[Game.getUserTypeIndex(userType)];
+		for (int lineId : getLineIds(movekey)) {
+			counts[lineId]--;
+		}
+	}
+
 	public List<Integer> getPositionList(IUserType userType) {
 		return this.userPositionlistMap.get(userType);
 	}
+
+	/**
+	 * Get the count of userType's moves on the horizontal line i
+	 * @param userType UserType to count
+	 * @param i        Index of the row
+	 * @return         Count of userType on the horizontal line
+	 */
+	public int getHorizontalCount(IUserType userType, int i) {
+		return this.lineCounts[Game.getUserTypeIndex(userType)][i];
+	}
+
+	/**
+	 * Get the count of userType's moves on the vertical line j
+	 * @param userType UserType to count
+	 * @param j        Index of the column
+	 * @return         Count of userType on the vertical line
+	 */
+	public int getVerticalCount(IUserType userType, int j) {
+		return this.lineCounts[Game.getUserTypeIndex(userType)][this.boardSize + j];
+	}
+
+	/**
+	 * Get the count of userType's moves on the left top to right bottom diagonal line
+	 * @param userType UserType to count
+	 * @return         Count of userType on the left top to right bottom diagonal line
+	 */
+	public int getRightDownDiagonalCount(IUserType userType) {
+		return this.lineCounts[Game.getUserTypeIndex(userType)][2 * this.boardSize];
+	}
+
+	/**
+	 * Get the count of userType's moves on the left bottom to right top diagonal line
+	 * @param userType UserType to count
+	 * @return         Count of userType on the left bottom to right top diagonal line
+	 */
+	public int getRightUpDiagonalCount(IUserType userType) {
+		return this.lineCounts[Game.getUserTypeIndex(userType)][2 * this.boardSize + 1];
+	}
+
+	/**
+	 * Get the count of userType's moves on the line
+	 * @param userType UserType to count
+	 * @param lineId   Id of the line given by BoardGeometry
+	 * @return         Count of userType on the line
+	 */
+	public int getLineCount(IUserType userType, int lineId) {
+		return this.lineCounts[Game.getUserTypeIndex(userType)][lineId];
+	}
+
+	/**
+	 * Tell if userType fills any line the movekey is on
+	 * @param userType UserType to check
+	 * @param movekey  Movekey whose lines to check
+	 * @return         True if one of the lines is fully occupied by userType, false if not
+	 */
+	public boolean isLineFilled(IUserType userType, int movekey) {
+		int[] counts = this.lineCounts[Game.getUserTypeIndex(userType)];
+		for (int lineId : getLineIds(movekey)) {
+			if (counts[lineId] == this.boardSize) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the ids of the lines through the movekey
+	 */
+	private int[] getLineIds(int movekey) {
+		if (this.geometry != null) {
+			return this.geometry.getLineIds(movekey);
+		}
+		int i = (movekey - 1) / this.boardSize;
+		int j = (movekey - 1) % this.boardSize;
+		int lineIdCount = 2;
+		if (i == j) {
+			lineIdCount++;
+		}
+		if (i + j == this.boardSize - 1) {
+			lineIdCount++;
+		}
+		int[] lineIds = new int[lineIdCount];
+		lineIds[0] = i;
+		lineIds[1] = this.boardSize + j;
+		if (i == j) {
+			lineIds[2] = 2 * this.boardSize;
+		}
+		if (i + j == this.boardSize - 1) {
+			lineIds[lineIdCount - 1] = 2 * this.boardSize + 1;
+		}
+		return lineIds;
+	}
 }
@@ -2,16 +2,12 @@ package com.tictactoe.core;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
 
 import com.tictactoe.agent.AgentFactory;
-import com.tictactoe.agent.AgentFactory.AgentType;
 import com.tictactoe.agent.IAgent;
 
 public class Game {
 	private Board board;
-	private Random random;
-	private final int difficulty; // How strong the agent is
 	private int movecount;
 	private int prevmove = -1;
 	private IUserType currentTurn; // UserType of the current user holding the turn
@@ -19,8 +15,7 @@ public class Game {
 	private User user;
 	private User agentUser;
 	
-	private IAgent randomAgent;
-	private IAgent rationalAgent;
+	private IAgent agent; // Plays at the difficulty
 	
 	public interface IUserType {}
 	
@@ -39,8 +34,8 @@ public class Game {
 	
 	private Map<IUserType, User> typeUserMap = new HashMap<IUserType, User>();
 	
-	private static int MIN_DIFFICULTY = 0;
-	private static int MAX_DIFFICULTY = 10;
+	private static int MIN_DIFFICULTY = AgentFactory.MIN_DIFFICULTY;
+	private static int MAX_DIFFICULTY = AgentFactory.MAX_DIFFICULTY;
 	private static int DEFAULT_DIFFICULTY = 10;
 	private static int DEFAULT_BOARD_SIZE = 3;
 	
@@ -52,6 +47,12 @@ public class Game {
 		this(difficulty, DEFAULT_BOARD_SIZE);
 	}
 	
+	/**
+	 * Start a game against the agent of the difficulty
+	 * Note: Sparse board sizes are rejected, the agent of every difficulty needs a board storing every cell
+	 * @param difficulty  Difficulty of the agent from MIN_DIFFICULTY to MAX_DIFFICULTY
+	 * @param boardsize   Number of rows and columns, up to 256
+	 */
 	Game(int difficulty, int boardsize) {
 		if (difficulty < MIN_DIFFICULTY || difficulty > MAX_DIFFICULTY) {
 			throw new IllegalArgumentException();
@@ -59,22 +60,21 @@ public class Game {
 		if (boardsize < 0) {
 			throw new IllegalArgumentException();
 		}
+		if (Board.isSparseShape(boardsize, boardsize)) { // Too large for MctsAgent to expand
+			throw new IllegalArgumentException();
+		}
 		this.board = new Board(boardsize);
-		this.random = new Random();
-		this.difficulty = difficulty;
 		this.user = new User(Game.getUserUserType());
 		this.agentUser = new User(Game.getAgentUserType());
 		this.typeUserMap.put(user.getUserType(), this.user);
 		this.typeUserMap.put(agentUser.getUserType(), this.agentUser);
-		BoardIndex boardIndex = new BoardIndex(typeUserMap);
+		BoardIndex boardIndex = new BoardIndex(typeUserMap, boardsize);
 		this.board.setBoardIndex(boardIndex);
-		this.randomAgent = AgentFactory.createAgent(AgentType.RANDOM);
-		this.rationalAgent = AgentFactory.createAgent(AgentType.RATIONAL);
+		this.agent = AgentFactory.createAgent(difficulty);
 	}
 	
 	public void put(IUserType userType, int movekey) {
 		this.typeUserMap.get(userType).put(this.board, movekey);
-		this.board.getBoardIndex().addUserPosition(userType, movekey);
 		this.prevmove = movekey;
 		this.movecount++;
 		changeTurn();
@@ -95,19 +95,60 @@ public class Game {
 	public static IUserType getAgentUserType() {
 		return UserType.X;
 	}
-	
+
 	/**
-	 * Select the agent based on the difficulty of the game and decide the next move
-	 * @return next movekey
+	 * Get the userType of the opponent of userType
+	 * @param userType UserType whose opponent to get
+	 * @return         X for O, O for X
 	 */
-	public int getAgentMove() {
-		int val = this.random.nextInt(MAX_DIFFICULTY);
-		if (val >= this.difficulty) {
-			return this.randomAgent.selectNextMove(this.board);
+	public static IUserType getOpponentUserType(IUserType userType) {
+		if (userType == UserType.O) {
+			return UserType.X;
+		} else if (userType == UserType.X) {
+			return UserType.O;
 		} else {
-			return this.rationalAgent.selectNextMove(this.board);
+			throw new IllegalArgumentException();
 		}
 	}
+
+	/**
+	 * Get the index of the userType to look up per-user arrays
+	 * @param userType UserType to get the index
+	 * @return         0 for O, 1 for X
+	 */
+	public static int getUserTypeIndex(IUserType userType) {
+		if (userType == UserType.O) {
+			return 0;
+		} else if (userType == UserType.X) {
+			return 1;
+		} else {
+			throw new IllegalArgumentException();
+		}
+	}
+
+	/**
+	 * Get the userType of the index given by getUserTypeIndex
+	 * @param userTypeIndex Index of the userType
+	 * @return              O for 0, X for 1
+	 */
+	public static IUserType getUserTypeByIndex(int userTypeIndex) {
+		if (userTypeIndex == 0) {
+			return UserType.O;
+		} else if (userTypeIndex == 1) {
+			return UserType.X;
+		} else {
+			throw new IllegalArgumentException();
+		}
+	}
+
+	/**
+	 * Decide the next move by the agent of the difficulty of the game
+	 * Note: Every move of a difficulty costs about the same CPU time, see AgentFactory.createAgent(int)
+	 * @return next movekey
+	 */
+	public int getAgentMove() {
+		return this.agent.selectNextMove(this.board);
+	}
 	
 	public int getMoveCount() {
 		return this.movecount;
@@ -0,0 +1,27 @@
+package com.tictactoe.core;
+
+import com.tictactoe.core.Game.IUserType;
+
+/**
+ * Read-only view of the board state to look up cells without copying the board
+ */
+public interface IBoardView {
+	public int getSize();
+
+	/**
+	 * Get the userType placed on the movekey
+	 * @param movekey  Movekey of the cell
+	 * @return         UserType placed on the cell, null if the cell is available
+	 */
+	public IUserType getUserTypeAt(int movekey);
+
+	/**
+	 * Get the userType placed on the cell of the indices
+	 * @param i  Index to indicate the row of the board
+	 * @param j  Index to indicate the column of the board
+	 * @return   UserType placed on the cell, null if the cell is available
+	 */
+	public IUserType getUserTypeAt(int i, int j);
+
+	public boolean isAvailable(int movekey);
+}
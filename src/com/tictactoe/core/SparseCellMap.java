@@ -0,0 +1,131 @@
+package com.tictactoe.core;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from packed (row, col) coordinates to the user placed on the cell
+ * Memory is proportional to the number of moves instead of the area of the board
+ */
+class SparseCellMap {
+	private static final int INITIAL_CAPACITY = 64; // Needs to be a power of 2
+	private static final long EMPTY_KEY = -1L; // Coordinates are non-negative so never packed to -1
+
+	private long[] keys;
+	private byte[] values;
+	private int size;
+	private int mask;
+
+	SparseCellMap() {
+		this.keys = new long[INITIAL_CAPACITY];
+		this.values = new byte[INITIAL_CAPACITY];
+		this.mask = INITIAL_CAPACITY - 1;
+		Arrays.fill(this.keys, EMPTY_KEY);
+	}
+
+	/**
+	 * Get the value placed on the cell
+	 * @param row  Index of the row
+	 * @param col  Index of the column
+	 * @return     Value of the cell, 0 if nothing is placed
+	 */
+	byte get(int row, int col) {
+		long key = pack(row, col);
+		int slot = hash(key) & this.mask;
+		while (this.keys[slot] != EMPTY_KEY) {
+			if (this.keys[slot] == key) {
+				return this.values[slot];
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return 0;
+	}
+
+	/**
+	 * Place the non-zero value on the cell
+	 * @param row    Index of the row
+	 * @param col    Index of the column
+	 * @param value  Value to place
+	 */
+	void put(int row, int col, byte value) {
+		if ((this.size + 1) * 2 > this.keys.length) { // Keep the load factor under 0.5
+			resize(this.keys.length * 2);
+		}
+		long key = pack(row, col);
+		int slot = hash(key) & this.mask;
+		while (this.keys[slot] != EMPTY_KEY) {
+			if (this.keys[slot] == key) {
+				this.values[slot] = value;
+				return;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		this.keys[slot] = key;
+		this.values[slot] = value;
+		this.size++;
+	}
+
+	/**
+	 * Remove the value placed on the cell
+	 * @param row  Index of the row
+	 * @param col  Index of the column
+	 */
+	void remove(int row, int col) {
+		long key = pack(row, col);
+		int slot = hash(key) & this.mask;
+		while (this.keys[slot] != key) {
+			if (this.keys[slot] == EMPTY_KEY) { // Nothing is placed
+				return;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		// Shift the following entries of the probe sequence back instead of leaving a tombstone
+		int emptySlot = slot;
+		slot = (slot + 1) & this.mask;
+		while (this.keys[slot] != EMPTY_KEY) {
+			int homeSlot = hash(this.keys[slot]) & this.mask;
+			// Move the entry unless its home slot lies cyclically in (emptySlot, slot]
+			if (((slot - homeSlot) & this.mask) >= ((slot - emptySlot) & this.mask)) {
+				this.keys[emptySlot] = this.keys[slot];
+				this.values[emptySlot] = this.values[slot];
+				emptySlot = slot;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		this.keys[emptySlot] = EMPTY_KEY;
+		this.values[emptySlot] = 0;
+		this.size--;
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	private void resize(int capacity) {
+		long[] oldKeys = this.keys;
+		byte[] oldValues = this.values;
+		this.keys = new long[capacity];
+		this.values = new byte[capacity];
+		this.mask = capacity - 1;
+		Arrays.fill(this.keys, EMPTY_KEY);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY_KEY) {
+				int slot = hash(oldKeys[i]) & this.mask;
+				while (this.keys[slot] != EMPTY_KEY) {
+					slot = (slot + 1) & this.mask;
+				}
+				this.keys[slot] = oldKeys[i];
+				this.values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	private static long pack(int row, int col) {
+		return ((long) row << 32) | (col & 0xFFFFFFFFL);
+	}
+
+	private static int hash(long key) {
+		// Mix the bits of both coordinates into the lower bits
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
@@ -11,7 +11,7 @@ public class User {
 	}
 	
 	public void put(Board board, int movekey) {
-		board.put(this.userType, movekey);
+		board.apply(this.userType, movekey);
 	}
 	
 	public IUserType getUserType() {
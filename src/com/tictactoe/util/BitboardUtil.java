@@ -0,0 +1,117 @@
+package com.tictactoe.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class BitboardUtil {
+
+	public static final int MAX_BITBOARD_SIZE = 8; // 8x8 cells fit in one long
+	public static final int MAX_BITBOARD_CELLS = 64;
+
+	// Winning line masks through each cell, indexed by [movekey - 1], shared per board shape and win length
+	private static final ConcurrentMap<Long, long[][]> CELL_LINE_MASKS = new ConcurrentHashMap<Long, long[][]>();
+
+	/**
+	 * Tell if a square board of boardSize can be represented by bitboards
+	 * @param boardSize Size of the board
+	 * @return          True if every cell of the board fits in a long, false if not
+	 */
+	public static boolean isBitboardSize(int boardSize) {
+		return isBitboardSize(boardSize, boardSize);
+	}
+
+	/**
+	 * Tell if a board of rows x cols can be represented by bitboards
+	 * @param rows  Number of rows
+	 * @param cols  Number of columns
+	 * @return      True if every cell of the board fits in a long, false if not
+	 */
+	public static boolean isBitboardSize(int rows, int cols) {
+		if (rows > 0 && cols > 0 && (long) rows * cols <= MAX_BITBOARD_CELLS) {
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * Get the bit of the movekey on a bitboard
+	 * @param movekey Movekey to get the bit
+	 * @return        Bitboard having only the movekey bit set
+	 */
+	public static long getMovekeyBit(int movekey) {
+		return 1L << (movekey - 1);
+	}
+
+	/**
+	 * Get the masks of the winning lines through every cell of the board
+	 * Note: The returned array is shared and must not be modified
+	 * @param rows       Number of rows
+	 * @param cols       Number of columns
+	 * @param winLength  Number of consecutive moves to win
+	 * @return           Masks of the lines of winLength through each cell indexed by movekey - 1
+	 */
+	public static long[][] getLineMasks(int rows, int cols, int winLength) {
+		Long key = ((long) rows << 40) | ((long) cols << 20) | winLength;
+		long[][] cellLineMasks = CELL_LINE_MASKS.get(key);
+		if (cellLineMasks == null) {
+			cellLineMasks = computeCellLineMasks(rows, cols, winLength);
+			long[][] existingLineMasks = CELL_LINE_MASKS.putIfAbsent(key, cellLineMasks);
+			if (existingLineMasks != null) {
+				cellLineMasks = existingLineMasks;
+			}
+		}
+		return cellLineMasks;
+	}
+
+	/**
+	 * Compute the masks of every horizontal, vertical and diagonal line of winLength through each cell
+	 * @param rows       Number of rows
+	 * @param cols       Number of columns
+	 * @param winLength  Number of consecutive moves to win
+	 * @return           Masks of the lines through each cell indexed by movekey - 1
+	 */
+	private static long[][] computeCellLineMasks(int rows, int cols, int winLength) {
+		int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+		long[][] cellLineMasks = new long[rows * cols][0];
+		for (int[] direction : directions) {
+			for (int i = 0; i < rows; i++) {
+				for (int j = 0; j < cols; j++) {
+					// Line of winLength starting from (i, j) toward the direction
+					int lastI = i + (winLength - 1) * direction[0];
+					int lastJ = j + (winLength - 1) * direction[1];
+					if (lastI < 0 || lastI >= rows || lastJ < 0 || lastJ >= cols) {
+						continue;
+					}
+					long lineMask = 0L;
+					for (int k = 0; k < winLength; k++) {
+						lineMask |= getMovekeyBit((i + k * direction[0]) * cols + (j + k * direction[1]) + 1);
+					}
+					for (int k = 0; k < winLength; k++) {
+						int cell = (i + k * direction[0]) * cols + (j + k * direction[1]);
+						cellLineMasks[cell] = addLineMask(cellLineMasks[cell], lineMask);
+					}
+				}
+			}
+		}
+		return cellLineMasks;
+	}
+
+	/**
+	 * Add the line mask to the masks unless it's already included
+	 * @param lineMasks Masks of the lines through a cell
+	 * @param lineMask  Mask to add
+	 * @return          Masks including lineMask
+	 */
+	private static long[] addLineMask(long[] lineMasks, long lineMask) {
+		for (long existingLineMask : lineMasks) {
+			if (existingLineMask == lineMask) { // Lines of a single cell are the same in every direction
+				return lineMasks;
+			}
+		}
+		long[] newLineMasks = new long[lineMasks.length + 1];
+		System.arraycopy(lineMasks, 0, newLineMasks, 0, lineMasks.length);
+		newLineMasks[lineMasks.length] = lineMask;
+		return newLineMasks;
+	}
+}
@@ -0,0 +1,268 @@
+package com.tictactoe.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable geometry of a board shape computed once and shared by every board of the shape
+ * Lines are the horizontal lines, the vertical lines and, on square boards, the two diagonals
+ * Note: Arrays returned by the getters are shared and must not be modified
+ */
+public class BoardGeometry {
+	private static final ConcurrentMap<Long, BoardGeometry> GEOMETRIES = new ConcurrentHashMap<Long, BoardGeometry>();
+
+	private final int rows;
+	private final int cols;
+	private final int[] rowIndices; // Indexed by movekey - 1
+	private final int[] columnIndices;
+	private final int centerMovekey;
+	private final int[] cornerMovekeys;
+	private final int[] edgeMovekeys;
+	private final int[] oppositeCornerMovekeys; // 0 if the cell is not a corner
+	private final boolean[] rightDownDiagonalCells;
+	private final boolean[] rightUpDiagonalCells;
+	private final int[][] lines; // Movekeys on each line
+	private final int[][] cellLineIds; // Lines through each cell
+
+	/**
+	 * Get the geometry of the square board of boardSize
+	 * @param boardSize Size of the board
+	 * @return          Shared geometry of the board
+	 */
+	public static BoardGeometry getInstance(int boardSize) {
+		return getInstance(boardSize, boardSize);
+	}
+
+	/**
+	 * Get the geometry of a board of rows x cols
+	 * @param rows  Number of rows
+	 * @param cols  Number of columns
+	 * @return      Shared geometry of the board
+	 */
+	public static BoardGeometry getInstance(int rows, int cols) {
+		Long key = ((long) rows << 32) | cols;
+		BoardGeometry geometry = GEOMETRIES.get(key);
+		if (geometry == null) {
+			geometry = new BoardGeometry(rows, cols);
+			BoardGeometry existingGeometry = GEOMETRIES.putIfAbsent(key, geometry);
+			if (existingGeometry != null) {
+				geometry = existingGeometry;
+			}
+		}
+		return geometry;
+	}
+
+	private BoardGeometry(int rows, int cols) {
+		if (rows <= 0 || cols <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.rows = rows;
+		this.cols = cols;
+		int cellCount = rows * cols;
+		boolean square = rows == cols;
+
+		this.rowIndices = new int[cellCount];
+		this.columnIndices = new int[cellCount];
+		this.rightDownDiagonalCells = new boolean[cellCount];
+		this.rightUpDiagonalCells = new boolean[cellCount];
+		int edgeCount = 0;
+		for (int cell = 0; cell < cellCount; cell++) {
+			int i = cell / cols;
+			int j = cell % cols;
+			this.rowIndices[cell] = i;
+			this.columnIndices[cell] = j;
+			this.rightDownDiagonalCells[cell] = square && i == j;
+			this.rightUpDiagonalCells[cell] = square && i + j == cols - 1;
+			if ((i == 0 || i == rows - 1 || j == 0 || j == cols - 1) && !isCornerIndices(i, j)) {
+				edgeCount++;
+			}
+		}
+
+		// Center exists only on a square board of odd size
+		if (square && rows % 2 == 1) {
+			this.centerMovekey = (cellCount + 1) / 2;
+		} else {
+			this.centerMovekey = -1;
+		}
+
+		// Corners in the order of movekeys without duplicates on boards of a single row or column
+		int[] corners = {1, cols, (rows - 1) * cols + 1, cellCount};
+		int cornerCount = 0;
+		int[] cornerMovekeys = new int[4];
+		for (int corner : corners) {
+			boolean duplicated = false;
+			for (int k = 0; k < cornerCount; k++) {
+				if (cornerMovekeys[k] == corner) {
+					duplicated = true;
+				}
+			}
+			if (!duplicated) {
+				cornerMovekeys[cornerCount++] = corner;
+			}
+		}
+		this.cornerMovekeys = new int[cornerCount];
+		System.arraycopy(cornerMovekeys, 0, this.cornerMovekeys, 0, cornerCount);
+		this.oppositeCornerMovekeys = new int[cellCount];
+		for (int corner : this.cornerMovekeys) {
+			// Point reflection through the center of the board
+			this.oppositeCornerMovekeys[corner - 1] = cellCount + 1 - corner;
+		}
+
+		this.edgeMovekeys = new int[edgeCount];
+		int edgeIndex = 0;
+		for (int cell = 0; cell < cellCount; cell++) {
+			int i = this.rowIndices[cell];
+			int j = this.columnIndices[cell];
+			if ((i == 0 || i == rows - 1 || j == 0 || j == cols - 1) && !isCornerIndices(i, j)) {
+				this.edgeMovekeys[edgeIndex++] = cell + 1;
+			}
+		}
+
+		// Horizontal lines, vertical lines, then the left top to right bottom and left bottom to right top diagonals
+		int lineCount = rows + cols + (square ? 2 : 0);
+		this.lines = new int[lineCount][];
+		for (int i = 0; i < rows; i++) {
+			this.lines[i] = new int[cols];
+			for (int j = 0; j < cols; j++) {
+				this.lines[i][j] = i * cols + j + 1;
+			}
+		}
+		for (int j = 0; j < cols; j++) {
+			this.lines[rows + j] = new int[rows];
+			for (int i = 0; i < rows; i++) {
+				this.lines[rows + j][i] = i * cols + j + 1;
+			}
+		}
+		if (square) {
+			this.lines[rows + cols] = new int[rows];
+			this.lines[rows + cols + 1] = new int[rows];
+			for (int i = 0; i < rows; i++) {
+				this.lines[rows + cols][i] = i * cols + i + 1;
+				this.lines[rows + cols + 1][i] = i * cols + (cols - 1 - i) + 1;
+			}
+		}
+		this.cellLineIds = new int[cellCount][];
+		for (int cell = 0; cell < cellCount; cell++) {
+			int cellLineCount = 2 + (this.rightDownDiagonalCells[cell] ? 1 : 0) + (this.rightUpDiagonalCells[cell] ? 1 : 0);
+			int[] lineIds = new int[cellLineCount];
+			int lineIndex = 0;
+			lineIds[lineIndex++] = this.rowIndices[cell];
+			lineIds[lineIndex++] = rows + this.columnIndices[cell];
+			if (this.rightDownDiagonalCells[cell]) {
+				lineIds[lineIndex++] = rows + cols;
+			}
+			if (this.rightUpDiagonalCells[cell]) {
+				lineIds[lineIndex++] = rows + cols + 1;
+			}
+			this.cellLineIds[cell] = lineIds;
+		}
+	}
+
+	private boolean isCornerIndices(int i, int j) {
+		if ((i == 0 || i == this.rows - 1) && (j == 0 || j == this.cols - 1)) {
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	public int getRowCount() {
+		return this.rows;
+	}
+
+	public int getColumnCount() {
+		return this.cols;
+	}
+
+	public int getCellCount() {
+		return this.rowIndices.length;
+	}
+
+	/**
+	 * Get the index of the row the movekey is on
+	 */
+	public int getRow(int movekey) {
+		return this.rowIndices[movekey - 1];
+	}
+
+	/**
+	 * Get the index of the column the movekey is on
+	 */
+	public int getColumn(int movekey) {
+		return this.columnIndices[movekey - 1];
+	}
+
+	/**
+	 * Get the movekey of the center
+	 * @return  Movekey of the center on the board, -1 if center doesn't exist
+	 */
+	public int getCenterMovekey() {
+		return this.centerMovekey;
+	}
+
+	/**
+	 * Get the movekeys of the corners in ascending order
+	 */
+	public int[] getCornerMovekeys() {
+		return this.cornerMovekeys;
+	}
+
+	/**
+	 * Get the movekeys on the sides of the board except for the corners in ascending order
+	 */
+	public int[] getEdgeMovekeys() {
+		return this.edgeMovekeys;
+	}
+
+	public boolean isCorner(int movekey) {
+		if (this.oppositeCornerMovekeys[movekey - 1] != 0) {
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * Get the opposite corner movekey
+	 * ex. Opposite corner of movkey: 1 on boardSize: 3 is 9
+	 * @param cornerMovekey Movekey of a corner
+	 * @return              Movekey of opposite corner
+	 */
+	public int getOppositeCornerMovekey(int cornerMovekey) {
+		int oppositeCornerMovekey = this.oppositeCornerMovekeys[cornerMovekey - 1];
+		if (oppositeCornerMovekey == 0) { // Not a corner
+			throw new IllegalArgumentException();
+		}
+		return oppositeCornerMovekey;
+	}
+
+	public boolean isRightDownDiagonal(int movekey) {
+		return this.rightDownDiagonalCells[movekey - 1];
+	}
+
+	public boolean isRightUpDiagonal(int movekey) {
+		return this.rightUpDiagonalCells[movekey - 1];
+	}
+
+	public int getLineCount() {
+		return this.lines.length;
+	}
+
+	/**
+	 * Get the movekeys on the line in ascending order
+	 * @param lineId Horizontal lines from 0, vertical lines from getRowCount(), then the two diagonals
+	 * @return       Movekeys on the line
+	 */
+	public int[] getLine(int lineId) {
+		return this.lines[lineId];
+	}
+
+	/**
+	 * Get the lines the movekey is on
+	 * @param movekey Movekey whose lines to get
+	 * @return        Ids of the horizontal, vertical and diagonal lines through the movekey
+	 */
+	public int[] getLineIds(int movekey) {
+		return this.cellLineIds[movekey - 1];
+	}
+}
@@ -1,11 +1,27 @@
 package com.tictactoe.util;
 
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import com.tictactoe.core.Board;
+import com.tictactoe.core.Game;
 import com.tictactoe.core.Game.IUserType;
+import com.tictactoe.core.IBoardView;
 
 public class BoardUtil {
 
+	/**
+	 * Number of symmetries of a square board (dihedral group D4)
+	 * 0: Identity, 1: Rotate 90, 2: Rotate 180, 3: Rotate 270,
+	 * 4: Mirror left-right, 5: Mirror top-bottom, 6: Transpose, 7: Anti-transpose
+	 */
+	public static final int SYMMETRY_COUNT = 8;
+
+	// Movekey permutation of every symmetry indexed by [symmetry][movekey - 1], shared per board size
+	private static final ConcurrentMap<Integer, int[][]> SYMMETRY_TABLES = new ConcurrentHashMap<Integer, int[][]>();
+	private static final ConcurrentMap<Integer, int[][]> INVERSE_SYMMETRY_TABLES = new ConcurrentHashMap<Integer, int[][]>();
+
 	/**
 	 * Compute the corresponding movekey from indices on the matrix of boardSize
 	 * @param boardSize  Size of the board to compute the movekey from indices
@@ -23,7 +39,7 @@ public class BoardUtil {
 	 * @return matrix indices array in 0th and 1st elements
 	 */
 	public static int[] computeIndicesFromMovekey(int movekey, int boardSize) {
-		int x = (int) Math.floor((movekey - 1) / boardSize);
+		int x = (movekey - 1) / boardSize;
 		int y = (movekey - 1) % boardSize;
 		int[] indices = {x, y};	
 		return indices;
@@ -49,18 +65,10 @@ public class BoardUtil {
 	 * @return           True if the movekey is on the corner, false if not
 	 */
 	public static boolean isCornerMovekey(int movekey, int boardSize) {
-		int[] indices = computeIndicesFromMovekey(movekey, boardSize);
-		if (indices[0] == 0 && indices[1] == 0) {
-			return true;
-		} else if (indices[0] == 0 && indices[1] == (boardSize - 1)) {
-			return true;
-		} else if (indices[0] == (boardSize - 1) && indices[1] == 0) {
-			return true;
-		} else if (indices[0] == (boardSize - 1) && indices[1] == (boardSize - 1)) {
-			return true;
-		} else {
+		if (!isMovekeyInRange(movekey, boardSize)) {
 			return false;
 		}
+		return BoardGeometry.getInstance(boardSize).isCorner(movekey);
 	}
 	
 	/**
@@ -84,12 +92,10 @@ public class BoardUtil {
 	 * @return          True if on the left top to right bottom diagonal line, false if not
 	 */
 	public static boolean isRightDownDiagonalMovekey(int movekey, int boardSize) {
-		int[] indices = computeIndicesFromMovekey(movekey, boardSize);
-		if (indices[0] == indices[1]) {
-			return true;
-		} else {
+		if (!isMovekeyInRange(movekey, boardSize)) {
 			return false;
 		}
+		return BoardGeometry.getInstance(boardSize).isRightDownDiagonal(movekey);
 	}
 	
 	/**
@@ -99,8 +105,18 @@ public class BoardUtil {
 	 * @return          True if on the left bottom to right top diagonal line, false if not
 	 */
 	public static boolean isRightUpDiagonalMovekey(int movekey, int boardSize) {
-		int[] indices = computeIndicesFromMovekey(movekey, boardSize);
-		if ((indices[0] + indices[1]) == (boardSize - 1)) {
+		if (!isMovekeyInRange(movekey, boardSize)) {
+			return false;
+		}
+		return BoardGeometry.getInstance(boardSize).isRightUpDiagonal(movekey);
+	}
+	
+	/**
+	 * Tell if the movekey is on a square board of boardSize
+	 * Note: Movekeys out of the board are on no corner or diagonal line
+	 */
+	private static boolean isMovekeyInRange(int movekey, int boardSize) {
+		if (boardSize > 0 && movekey >= 1 && movekey <= boardSize * boardSize) {
 			return true;
 		} else {
 			return false;
@@ -145,6 +161,44 @@ public class BoardUtil {
 		return count;
 	}
 	
+	/**
+	 * Get the count of userType on the horizontal line of the board where movekey is on
+	 * @param board    Current state of the board
+	 * @param userType UserType to count
+	 * @param movekey  Movekey whose horizontal line to count
+	 * @return         Count of userType on the horizontal line where movekey is on
+	 */
+	public static int getHorizontalCount(IBoardView board, IUserType userType, int movekey) {
+		int boardSize = board.getSize();
+		int x = (movekey - 1) / boardSize;
+		int count = 0;
+		for (int y = 0; y < boardSize; y++) {
+			if (userType.equals(board.getUserTypeAt(x, y))) {
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Get the count of userType on the vertical line of the board where movekey is on
+	 * @param board    Current state of the board
+	 * @param userType UserType to count
+	 * @param movekey  Movekey whose vertical line to count
+	 * @return         Count of userType on the vertical line where movekey is on
+	 */
+	public static int getVericalCount(IBoardView board, IUserType userType, int movekey) {
+		int boardSize = board.getSize();
+		int y = (movekey - 1) % boardSize;
+		int count = 0;
+		for (int x = 0; x < boardSize; x++) {
+			if (userType.equals(board.getUserTypeAt(x, y))) {
+				count++;
+			}
+		}
+		return count;
+	}
+	
 	/**
 	 * Get the count of userType on the left top to right bottom diagonal line of matrix
 	 * @param matrix   Current state of the board
@@ -179,6 +233,70 @@ public class BoardUtil {
 		return count;
 	}
 	
+	/**
+	 * Get the count of userType on the left top to right bottom diagonal line of the board
+	 * @param board    Current state of the board
+	 * @param userType UserType to count
+	 * @return         Count of userType on the left top to right bottom diagonal line
+	 */
+	public static int getRightDownDiagonalCount(IBoardView board, IUserType userType) {
+		int boardSize = board.getSize();
+		int count = 0;
+		for (int i = 0; i < boardSize; i++) {
+			if (userType.equals(board.getUserTypeAt(i, i))) { // Left top to right bottom
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Get the count of userType on the left bottom to right top diagonal line of the board
+	 * @param board    Current state of the board
+	 * @param userType UserType to count
+	 * @return         Count of userType on the left bottom to right top diagonal line
+	 */
+	public static int getRightUpDiagonalCount(IBoardView board, IUserType userType) {
+		int boardSize = board.getSize();
+		int count = 0;
+		for (int i = 0; i < boardSize; i++) {
+			if (userType.equals(board.getUserTypeAt(i, boardSize - 1 - i))) { // Left bottom to right top
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Wrap the matrix into a read-only view without copying it
+	 * Note: Changes made to the matrix afterwards are visible through the view
+	 * @param matrix  Board state to wrap
+	 * @return        View of the matrix
+	 */
+	public static IBoardView getBoardView(final IUserType[][] matrix) {
+		return new IBoardView() {
+			@Override
+			public int getSize() {
+				return matrix.length;
+			}
+			
+			@Override
+			public IUserType getUserTypeAt(int movekey) {
+				return matrix[(movekey - 1) / matrix.length][(movekey - 1) % matrix.length];
+			}
+			
+			@Override
+			public IUserType getUserTypeAt(int i, int j) {
+				return matrix[i][j];
+			}
+			
+			@Override
+			public boolean isAvailable(int movekey) {
+				return getUserTypeAt(movekey) == null;
+			}
+		};
+	}
+	
 	/**
 	 * Deep copy the giveb matrix
 	 * @param matrix  Current state of the board
@@ -191,5 +309,219 @@ public class BoardUtil {
 		}
 		return matrixCopy;
 	}
+	
+	/**
+	 * Deep copy the state of the given board into a new matrix
+	 * @param board  Current state of the board
+	 * @return       Deep copied matrix
+	 */
+	public static IUserType[][] getDeepCopy(IBoardView board) {
+		int boardSize = board.getSize();
+		IUserType[][] matrixCopy = new IUserType[boardSize][boardSize];
+		for (int i = 0; i < boardSize; i++) {
+			for (int j = 0; j < boardSize; j++) {
+				matrixCopy[i][j] = board.getUserTypeAt(i, j);
+			}
+		}
+		return matrixCopy;
+	}
+	
+	/**
+	 * Get the movekey permutation of every symmetry of the board
+	 * Note: The returned table is shared and must not be modified
+	 * @param boardSize Size of the board
+	 * @return          Transformed movekeys indexed by [symmetry][movekey - 1]
+	 */
+	public static int[][] getSymmetryTable(int boardSize) {
+		int[][] symmetryTable = SYMMETRY_TABLES.get(boardSize);
+		if (symmetryTable == null) {
+			symmetryTable = new int[SYMMETRY_COUNT][boardSize * boardSize];
+			int[][] inverseSymmetryTable = new int[SYMMETRY_COUNT][boardSize * boardSize];
+			int last = boardSize - 1;
+			for (int i = 0; i < boardSize; i++) {
+				for (int j = 0; j < boardSize; j++) {
+					int movekey = computeMovekeyFromIndices(boardSize, i, j);
+					int[] transformedMovekeys = {
+						movekey,
+						computeMovekeyFromIndices(boardSize, j, last - i),
+						computeMovekeyFromIndices(boardSize, last - i, last - j),
+						computeMovekeyFromIndices(boardSize, last - j, i),
+						computeMovekeyFromIndices(boardSize, i, last - j),
+						computeMovekeyFromIndices(boardSize, last - i, j),
+						computeMovekeyFromIndices(boardSize, j, i),
+						computeMovekeyFromIndices(boardSize, last - j, last - i)
+					};
+					for (int symmetry = 0; symmetry < SYMMETRY_COUNT; symmetry++) {
+						symmetryTable[symmetry][movekey - 1] = transformedMovekeys[symmetry];
+						inverseSymmetryTable[symmetry][transformedMovekeys[symmetry] - 1] = movekey;
+					}
+				}
+			}
+			// Register the inverse first so that it's available once the table is visible
+			INVERSE_SYMMETRY_TABLES.putIfAbsent(boardSize, inverseSymmetryTable);
+			int[][] existingTable = SYMMETRY_TABLES.putIfAbsent(boardSize, symmetryTable);
+			if (existingTable != null) {
+				symmetryTable = existingTable;
+			}
+		}
+		return symmetryTable;
+	}
+	
+	/**
+	 * Get the movekey permutation which takes every symmetry of the board back
+	 * Note: The returned table is shared and must not be modified
+	 * @param boardSize Size of the board
+	 * @return          Original movekeys indexed by [symmetry][transformed movekey - 1]
+	 */
+	public static int[][] getInverseSymmetryTable(int boardSize) {
+		getSymmetryTable(boardSize);
+		return INVERSE_SYMMETRY_TABLES.get(boardSize);
+	}
+	
+	/**
+	 * Map the movekey through the symmetry
+	 * @param movekey   Movekey to transform
+	 * @param boardSize Size of the board
+	 * @param symmetry  Symmetry to apply in the range of [0, SYMMETRY_COUNT)
+	 * @return          Transformed movekey
+	 */
+	public static int transformMovekey(int movekey, int boardSize, int symmetry) {
+		return getSymmetryTable(boardSize)[symmetry][movekey - 1];
+	}
+	
+	/**
+	 * Map the transformed movekey back through the symmetry
+	 * @param movekey   Transformed movekey to take back
+	 * @param boardSize Size of the board
+	 * @param symmetry  Symmetry the movekey was transformed with
+	 * @return          Original movekey
+	 */
+	public static int inverseTransformMovekey(int movekey, int boardSize, int symmetry) {
+		return getInverseSymmetryTable(boardSize)[symmetry][movekey - 1];
+	}
+	
+	/**
+	 * Map every move of the bitboard through the symmetry
+	 * @param bitboard  Bitboard to transform
+	 * @param boardSize Size of the board
+	 * @param symmetry  Symmetry to apply in the range of [0, SYMMETRY_COUNT)
+	 * @return          Transformed bitboard
+	 */
+	public static long transformBitboard(long bitboard, int boardSize, int symmetry) {
+		int[] symmetryTable = getSymmetryTable(boardSize)[symmetry];
+		long transformedBitboard = 0L;
+		while (bitboard != 0) {
+			int cell = Long.numberOfTrailingZeros(bitboard);
+			transformedBitboard |= BitboardUtil.getMovekeyBit(symmetryTable[cell]);
+			bitboard &= bitboard - 1; // Clear the lowest move
+		}
+		return transformedBitboard;
+	}
+	
+	/**
+	 * Get the symmetry which maps the position on the board to its canonical form
+	 * Note: Symmetric positions have the same canonical form, so they can share a lookup entry
+	 * @param board Current state of the board
+	 * @return      Symmetry to apply to get the canonical form of the position
+	 */
+	public static int getCanonicalSymmetry(Board board) {
+		int boardSize = board.getSize();
+		int canonicalSymmetry = 0;
+		if (BitboardUtil.isBitboardSize(boardSize)) {
+			// Compare the transformed bitboards as unsigned numbers, user first then agent
+			long userBitboard = board.getBitboard(Game.getUserUserType());
+			long agentBitboard = board.getBitboard(Game.getAgentUserType());
+			long minUserBitboard = userBitboard;
+			long minAgentBitboard = agentBitboard;
+			for (int symmetry = 1; symmetry < SYMMETRY_COUNT; symmetry++) {
+				long transformedUserBitboard = transformBitboard(userBitboard, boardSize, symmetry);
+				if (transformedUserBitboard + Long.MIN_VALUE > minUserBitboard + Long.MIN_VALUE) {
+					continue;
+				}
+				long transformedAgentBitboard = transformBitboard(agentBitboard, boardSize, symmetry);
+				if (transformedUserBitboard != minUserBitboard
+						|| transformedAgentBitboard + Long.MIN_VALUE < minAgentBitboard + Long.MIN_VALUE) {
+					minUserBitboard = transformedUserBitboard;
+					minAgentBitboard = transformedAgentBitboard;
+					canonicalSymmetry = symmetry;
+				}
+			}
+		} else {
+			// Compare the transformed positions cell by cell in the order of movekeys
+			int[][] inverseSymmetryTable = getInverseSymmetryTable(boardSize);
+			for (int symmetry = 1; symmetry < SYMMETRY_COUNT; symmetry++) {
+				for (int cell = 0; cell < boardSize * boardSize; cell++) {
+					int code = getCellCode(board.getUserTypeAt(inverseSymmetryTable[symmetry][cell]));
+					int minCode = getCellCode(board.getUserTypeAt(inverseSymmetryTable[canonicalSymmetry][cell]));
+					if (code < minCode) {
+						canonicalSymmetry = symmetry;
+						break;
+					} else if (code > minCode) {
+						break;
+					}
+				}
+			}
+		}
+		return canonicalSymmetry;
+	}
+	
+	/**
+	 * Get the Zobrist key of the canonical form of the position on the board
+	 * @param board Current state of the board
+	 * @return      Zobrist key shared by every symmetric variant of the position
+	 */
+	public static long getCanonicalZobristKey(Board board) {
+		return getZobristKey(board, getCanonicalSymmetry(board));
+	}
+	
+	/**
+	 * Get the Zobrist key of the position on the board transformed by the symmetry
+	 * @param board    Current state of the board
+	 * @param symmetry Symmetry to apply in the range of [0, SYMMETRY_COUNT)
+	 * @return         Zobrist key of the transformed position
+	 */
+	public static long getZobristKey(Board board, int symmetry) {
+		if (symmetry == 0) {
+			return board.getZobristKey();
+		}
+		int boardSize = board.getSize();
+		int[] symmetryTable = getSymmetryTable(boardSize)[symmetry];
+		long zobristKey = ZobristUtil.getShapeKey(board.getRowCount(), board.getColumnCount(), board.getWinLength());
+		if (BitboardUtil.isBitboardSize(boardSize)) {
+			long[][] zobristTable = ZobristUtil.getTable(boardSize);
+			IUserType[] userTypes = {Game.getUserUserType(), Game.getAgentUserType()};
+			for (IUserType userType : userTypes) {
+				long[] userZobristTable = zobristTable[Game.getUserTypeIndex(userType)];
+				long bitboard = board.getBitboard(userType);
+				while (bitboard != 0) {
+					zobristKey ^= userZobristTable[symmetryTable[Long.numberOfTrailingZeros(bitboard)] - 1];
+					bitboard &= bitboard - 1; // Clear the lowest move
+				}
+			}
+			return zobristKey;
+		}
+		for (int movekey = 1; movekey <= boardSize * boardSize; movekey++) {
+			IUserType userType = board.getUserTypeAt(movekey);
+			if (userType != null) {
+				zobristKey ^= board.getCellZobristKey(userType, symmetryTable[movekey - 1]);
+			}
+		}
+		return zobristKey;
+	}
+	
+	/**
+	 * Get the code to order the cells for canonicalization
+	 * @param userType UserType placed on the cell, null if available
+	 * @return         0 if available, 1 for the user, 2 for the agent
+	 */
+	private static int getCellCode(IUserType userType) {
+		if (userType == null) {
+			return 0;
+		} else if (userType == Game.getUserUserType()) {
+			return 1;
+		} else {
+			return 2;
+		}
+	}
 
 }
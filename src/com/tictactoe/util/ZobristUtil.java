@@ -0,0 +1,89 @@
+package com.tictactoe.util;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class ZobristUtil {
+
+	// Fixed seed so that the keys of a position stay the same across sessions
+	private static final long SEED = 0x2545F4914F6CDD1DL;
+
+	// Random tables shared by all boards of the same number of cells
+	private static final ConcurrentMap<Integer, long[][]> TABLES = new ConcurrentHashMap<Integer, long[][]>();
+
+	/**
+	 * Get the random table to compute Zobrist keys of the boardSize
+	 * Note: The returned table is shared and must not be modified
+	 * @param boardSize Size of the board
+	 * @return          Random keys indexed by [Game.getUserTypeIndex][movekey - 1]
+	 */
+	public static long[][] getTable(int boardSize) {
+		return getTable(boardSize, boardSize);
+	}
+
+	/**
+	 * Get the random table to compute Zobrist keys of a board of rows x cols
+	 * Note: The returned table is shared and must not be modified
+	 * @param rows  Number of rows
+	 * @param cols  Number of columns
+	 * @return      Random keys indexed by [Game.getUserTypeIndex][movekey - 1]
+	 */
+	public static long[][] getTable(int rows, int cols) {
+		int cellCount = rows * cols;
+		long[][] table = TABLES.get(cellCount);
+		if (table == null) {
+			table = createTable(cellCount);
+			long[][] existingTable = TABLES.putIfAbsent(cellCount, table);
+			if (existingTable != null) {
+				table = existingTable;
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Get the random key of the board shape, which is the Zobrist key of the empty board
+	 * Note: Tables are shared by the shapes of the same number of cells, the shape key keeps their positions apart
+	 * @param rows       Number of rows
+	 * @param cols       Number of columns
+	 * @param winLength  Number of consecutive moves to win
+	 * @return           Random key of the shape, the same across sessions
+	 */
+	public static long getShapeKey(int rows, int cols, int winLength) {
+		long z = SEED ^ (((long) rows << 42) | ((long) cols << 21) | winLength);
+		z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+		z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return z ^ (z >>> 33);
+	}
+
+	/**
+	 * Compute the random key of a move without a table for boards too large to hold one
+	 * @param userTypeIndex Index of the user given by Game.getUserTypeIndex
+	 * @param movekey       Movekey of the move
+	 * @return              Random key of the move, the same across sessions
+	 */
+	public static long computeKey(int userTypeIndex, int movekey) {
+		// SplitMix64 finalizer over the seeded move
+		long z = SEED + (((long) movekey << 1) | userTypeIndex) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Generate the random table of the number of cells
+	 * @param cellCount Number of cells on the board
+	 * @return          Random keys indexed by [Game.getUserTypeIndex][movekey - 1]
+	 */
+	private static long[][] createTable(int cellCount) {
+		Random random = new Random(SEED + cellCount);
+		long[][] table = new long[2][cellCount];
+		for (int userTypeIndex = 0; userTypeIndex < table.length; userTypeIndex++) {
+			for (int cell = 0; cell < table[userTypeIndex].length; cell++) {
+				table[userTypeIndex][cell] = random.nextLong();
+			}
+		}
+		return table;
+	}
+}